@@ -0,0 +1,53 @@
+package com.leavemarker.config;
+
+import com.leavemarker.enums.AttendanceStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the check constraint on {@code attendance.status} in step with {@link AttendanceStatus}.
+ * Hibernate writes the constraint when it creates the table and {@code ddl-auto: update} never revisits it,
+ * so a database created before a status was added (HALF_DAY) would reject rows with that status.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceStatusConstraintInitializer implements ApplicationRunner {
+
+    public static final String CONSTRAINT_NAME = "attendance_status_check";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            List<String> definitions = jdbcTemplate.queryForList(
+                    "SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conname = ?", String.class,
+                    CONSTRAINT_NAME);
+            boolean current = definitions.stream().anyMatch(definition -> Arrays.stream(AttendanceStatus.values())
+                    .allMatch(status -> definition.contains("'" + status.name() + "'")));
+            if (current) {
+                return;
+            }
+
+            String statuses = Arrays.stream(AttendanceStatus.values())
+                    .map(status -> "'" + status.name() + "'")
+                    .collect(Collectors.joining(", "));
+            jdbcTemplate.execute("ALTER TABLE attendance DROP CONSTRAINT IF EXISTS " + CONSTRAINT_NAME);
+            jdbcTemplate.execute("ALTER TABLE attendance ADD CONSTRAINT " + CONSTRAINT_NAME + " " +
+                    "CHECK (status IN (" + statuses + "))");
+            log.info("Updated attendance status check constraint to {}", statuses);
+        } catch (Exception ex) {
+            // Typically a missing privilege; rows with a status the old constraint lacks will fail until it is fixed
+            log.warn("Could not update attendance status check constraint: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.leavemarker.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size pools with a bounded queue for work that runs off the request threads. A full queue
+ * rejects with {@link java.util.concurrent.RejectedExecutionException}, which callers turn into a
+ * 503 or drop, rather than queueing without limit. Threads are daemons named {@code prefix-n}.
+ */
+public final class BoundedExecutors {
+
+    private BoundedExecutors() {
+    }
+
+    public static ThreadPoolExecutor newFixedPool(String threadNamePrefix, int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadNamePrefix + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
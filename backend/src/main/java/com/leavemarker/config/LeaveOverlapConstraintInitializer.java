@@ -0,0 +1,44 @@
+package com.leavemarker.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Installs the exclusion constraint that keeps an employee's active leave applications from overlapping.
+ * Hibernate cannot express it, so it is created here once the schema exists. Its GiST index also
+ * serves the overlap lookup in {@code LeaveApplicationRepository.existsOverlappingLeave}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveOverlapConstraintInitializer implements ApplicationRunner {
+
+    public static final String CONSTRAINT_NAME = "leave_applications_no_overlap";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)", Boolean.class, CONSTRAINT_NAME);
+            if (Boolean.TRUE.equals(exists)) {
+                return;
+            }
+
+            // btree_gist lets the scalar employee_id take part in a GiST index next to the date range
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            jdbcTemplate.execute("ALTER TABLE leave_applications ADD CONSTRAINT " + CONSTRAINT_NAME + " " +
+                    "EXCLUDE USING gist (employee_id WITH =, daterange(start_date, end_date, '[]') WITH &&) " +
+                    "WHERE (status IN ('PENDING', 'APPROVED') AND deleted = false)");
+            log.info("Created leave overlap exclusion constraint");
+        } catch (Exception ex) {
+            // Typically existing overlapping rows or a missing privilege; the service-level check still applies
+            log.warn("Could not install leave overlap exclusion constraint: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.leavemarker.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Installs the partial unique index that allows one OPENING ledger entry per balance, which the
+ * opening backfill in {@code LeaveLedgerService} relies on. Hibernate cannot express a partial index,
+ * so it is created here once the schema exists, before the other startup runners.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerOpeningIndexInitializer implements ApplicationRunner {
+
+    public static final String INDEX_NAME = "leave_balance_ledger_one_opening";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX_NAME + " " +
+                    "ON leave_balance_ledger (employee_id, leave_type, year) WHERE movement_type = 'OPENING'");
+            log.info("Unique opening ledger entry index is in place");
+        } catch (Exception ex) {
+            // Another replica creating it at the same moment, or a missing privilege; the backfill still runs alone
+            log.warn("Could not install unique opening ledger entry index: {}", ex.getMessage());
+        }
+    }
+}
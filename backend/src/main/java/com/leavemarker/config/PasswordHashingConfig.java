@@ -0,0 +1,41 @@
+package com.leavemarker.config;
+
+import com.leavemarker.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * BCrypt is deliberately slow, so hashing runs on its own small pool rather than on Tomcat threads.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    @Value("${security.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${security.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.password-hashing.max-wait:5000}")
+    private long maxWaitMillis;
+
+    @Value("${security.password-hashing.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    // Not exposed as a bean: an Executor bean would displace Spring Boot's applicationTaskExecutor
+    private ThreadPoolExecutor passwordHashingExecutor() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return BoundedExecutors.newFixedPool("password-hash", poolSize, queueCapacity);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingExecutor(),
+                maxWaitMillis, retryAfterSeconds, meterRegistry);
+    }
+}
@@ -0,0 +1,16 @@
+package com.leavemarker.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on the background jobs in {@code ScheduledJobs}. Every replica schedules them; single
+ * execution is enforced by {@code ClusterJobRunner}. Set {@code jobs.scheduling.enabled=false}
+ * to keep a node out of batch work entirely.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "jobs.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -1,25 +1,30 @@
 package com.leavemarker.controller;
 
 import com.leavemarker.dto.ApiResponse;
+import com.leavemarker.dto.attendance.AttendanceBoardResponse;
 import com.leavemarker.dto.attendance.AttendanceCorrectionRequest;
 import com.leavemarker.dto.attendance.AttendancePunchRequest;
 import com.leavemarker.dto.attendance.AttendanceResponse;
+import com.leavemarker.dto.attendance.RejectedPunchResponse;
 import com.leavemarker.enums.AttendanceStatus;
 import com.leavemarker.security.UserPrincipal;
+import com.leavemarker.service.AttendanceBoardService;
+import com.leavemarker.service.AttendancePunchIngestionService;
 import com.leavemarker.service.AttendanceService;
 import com.leavemarker.service.PlanValidationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -30,7 +35,14 @@ public class AttendanceController {
 
     private final AttendanceService attendanceService;
     private final PlanValidationService planValidationService;
-
+    private final AttendancePunchIngestionService punchIngestionService;
+    private final AttendanceBoardService attendanceBoardService;
+
+    /**
+     * Records a punch. With write-behind ingestion the punch is answered with 202 once it is journaled;
+     * it is written shortly after and may still be rejected then, e.g. when another node recorded a
+     * conflicting punch first. Rejected punches are listed under {@code /attendance/rejected-punches}.
+     */
     @PostMapping("/punch")
     public ResponseEntity<ApiResponse<AttendanceResponse>> punchInOut(
             @Valid @RequestBody AttendancePunchRequest request,
@@ -38,6 +50,15 @@ public class AttendanceController {
         // Validate attendance management access
         planValidationService.validateAttendanceManagementAccess(currentUser.getCompanyId());
 
+        if (punchIngestionService.isEnabled()) {
+            AttendanceResponse accepted = punchIngestionService.accept(request, currentUser);
+            return ResponseEntity
+                    .status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success(
+                            "Attendance accepted; it is recorded shortly and may still be rejected if it conflicts",
+                            accepted));
+        }
+
         AttendanceResponse response = attendanceService.punchInOut(request, currentUser);
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -87,29 +108,40 @@ public class AttendanceController {
             ? YearMonth.of(year, month)
             : YearMonth.now();
 
-        LocalDate startDate = targetMonth.atDay(1);
-        LocalDate endDate = targetMonth.atEndOfMonth();
+        Map<String, Object> stats = attendanceService.getMyAttendanceRate(targetMonth, currentUser);
 
-        List<AttendanceResponse> records = attendanceService.getMyAttendanceByDateRange(startDate, endDate, currentUser);
+        return ResponseEntity.ok(ApiResponse.success("Attendance rate retrieved successfully", stats));
+    }
 
-        long presentDays = records.stream()
-                .filter(r -> AttendanceStatus.PRESENT.name().equals(r.getStatus()))
-                .count();
+    @GetMapping("/rate/company")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN', 'MANAGER')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCompanyAttendanceRate(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer month,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        planValidationService.validateAttendanceRateAnalyticsAccess(currentUser.getCompanyId());
 
-        long totalWorkingDays = records.size();
+        YearMonth targetMonth = (year != null && month != null)
+            ? YearMonth.of(year, month)
+            : YearMonth.now();
 
-        double attendanceRate = totalWorkingDays > 0
-            ? (presentDays * 100.0 / totalWorkingDays)
-            : 0.0;
+        Map<String, Object> stats = attendanceService.getCompanyAttendanceRate(targetMonth, currentUser);
 
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("attendanceRate", Math.round(attendanceRate * 10.0) / 10.0);
-        stats.put("presentDays", presentDays);
-        stats.put("totalWorkingDays", totalWorkingDays);
-        stats.put("month", targetMonth.getMonthValue());
-        stats.put("year", targetMonth.getYear());
+        return ResponseEntity.ok(ApiResponse.success("Company attendance rate retrieved successfully", stats));
+    }
 
-        return ResponseEntity.ok(ApiResponse.success("Attendance rate retrieved successfully", stats));
+    @GetMapping("/board")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN', 'MANAGER')")
+    public ResponseEntity<ApiResponse<AttendanceBoardResponse>> getAttendanceBoard(
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        AttendanceBoardResponse response = attendanceBoardService.getBoard(currentUser.getCompanyId());
+        return ResponseEntity.ok(ApiResponse.success("Attendance board retrieved successfully", response));
+    }
+
+    @GetMapping(value = "/board/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN', 'MANAGER')")
+    public SseEmitter streamAttendanceBoard(@AuthenticationPrincipal UserPrincipal currentUser) {
+        return attendanceBoardService.subscribe(currentUser.getCompanyId());
     }
 
     @GetMapping("/date-range")
@@ -159,6 +191,16 @@ public class AttendanceController {
         return ResponseEntity.ok(ApiResponse.success("Pending corrections retrieved successfully", response));
     }
 
+    @GetMapping("/rejected-punches")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN', 'MANAGER')")
+    public ResponseEntity<ApiResponse<List<RejectedPunchResponse>>> getRejectedPunches(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        List<RejectedPunchResponse> response = punchIngestionService.getRejectedPunches(startDate, endDate, currentUser);
+        return ResponseEntity.ok(ApiResponse.success("Rejected punches retrieved successfully", response));
+    }
+
     @PostMapping("/mark")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN')")
     public ResponseEntity<ApiResponse<AttendanceResponse>> markAttendance(
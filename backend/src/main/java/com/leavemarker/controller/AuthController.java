@@ -8,6 +8,7 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -18,16 +19,22 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class AuthController {
 
+    private static final String AUTH_COOKIE = "auth_token";
+    private static final String REFRESH_COOKIE = "refresh_token";
+
     private final AuthService authService;
 
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
     @PostMapping("/signup")
     public ResponseEntity<ApiResponse<JwtAuthResponse>> signup(
             @Valid @RequestBody SignupRequest request,
             HttpServletResponse response) {
         JwtAuthResponse authResponse = authService.signup(request);
 
-        // Set httpOnly cookie
-        setAuthCookie(response, authResponse.getAccessToken());
+        // Set httpOnly cookies
+        setAuthCookies(response, authResponse);
 
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -40,21 +47,35 @@ public class AuthController {
             HttpServletResponse response) {
         JwtAuthResponse authResponse = authService.login(request);
 
-        // Set httpOnly cookie
-        setAuthCookie(response, authResponse.getAccessToken());
+        // Set httpOnly cookies
+        setAuthCookies(response, authResponse);
 
         return ResponseEntity.ok(ApiResponse.success("Login successful", authResponse));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<JwtAuthResponse>> refresh(
+            @CookieValue(name = REFRESH_COOKIE, required = false) String refreshCookie,
+            @RequestBody(required = false) RefreshTokenRequest request,
+            HttpServletResponse response) {
+        JwtAuthResponse authResponse = authService.refresh(resolveRefreshToken(refreshCookie, request));
+
+        setAuthCookies(response, authResponse);
+
+        return ResponseEntity.ok(ApiResponse.success("Token refreshed", authResponse));
+    }
+
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<Void>> logout(HttpServletResponse response) {
-        // Clear the cookie
-        Cookie cookie = new Cookie("auth_token", null);
-        cookie.setHttpOnly(true);
-        cookie.setSecure(false); // Set to true in production with HTTPS
-        cookie.setPath("/");
-        cookie.setMaxAge(0); // Delete immediately
-        response.addCookie(cookie);
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @CookieValue(name = REFRESH_COOKIE, required = false) String refreshCookie,
+            @RequestBody(required = false) RefreshTokenRequest request,
+            HttpServletResponse response) {
+        authService.logout(resolveRefreshToken(refreshCookie, request));
+
+        // Clear the cookies
+        response.addCookie(buildCookie(AUTH_COOKIE, null, 0, "/"));
+        response.addCookie(buildCookie(REFRESH_COOKIE, null, 0, refreshCookiePath()));
+        response.addCookie(buildCookie(REFRESH_COOKIE, null, 0, "/"));
 
         return ResponseEntity.ok(ApiResponse.success("Logged out successfully"));
     }
@@ -79,14 +100,35 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("Session valid", sessionData));
     }
 
-    private void setAuthCookie(HttpServletResponse response, String token) {
-        Cookie cookie = new Cookie("auth_token", token);
+    // Clients that keep the token themselves send it in the body; browsers rely on the cookie
+    private String resolveRefreshToken(String refreshCookie, RefreshTokenRequest request) {
+        return request != null && request.getRefreshToken() != null
+                ? request.getRefreshToken()
+                : refreshCookie;
+    }
+
+    private void setAuthCookies(HttpServletResponse response, JwtAuthResponse authResponse) {
+        // SameSite is set via Spring Security configuration
+        response.addCookie(buildCookie(AUTH_COOKIE, authResponse.getAccessToken(),
+                authResponse.getExpiresIn().intValue(), "/"));
+        // The long-lived refresh token is only sent to the auth endpoints, never with ordinary API calls
+        response.addCookie(buildCookie(REFRESH_COOKIE, authResponse.getRefreshToken(),
+                authResponse.getRefreshExpiresIn().intValue(), refreshCookiePath()));
+        // Expires the copy earlier versions scoped to /, which would otherwise keep going out with every request
+        response.addCookie(buildCookie(REFRESH_COOKIE, null, 0, "/"));
+    }
+
+    private String refreshCookiePath() {
+        return contextPath + "/auth";
+    }
+
+    private Cookie buildCookie(String name, String value, int maxAgeSeconds, String path) {
+        Cookie cookie = new Cookie(name, value);
         cookie.setHttpOnly(true);
         cookie.setSecure(false); // Set to true in production with HTTPS
-        cookie.setPath("/");
-        cookie.setMaxAge(24 * 60 * 60); // 24 hours
-        // SameSite is set via Spring Security configuration
-        response.addCookie(cookie);
+        cookie.setPath(path);
+        cookie.setMaxAge(maxAgeSeconds);
+        return cookie;
     }
 
     @PostMapping("/password-reset-request")
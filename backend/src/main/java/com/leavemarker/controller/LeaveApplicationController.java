@@ -1,6 +1,9 @@
 package com.leavemarker.controller;
 
 import com.leavemarker.dto.ApiResponse;
+import com.leavemarker.dto.CursorPageResponse;
+import com.leavemarker.dto.leaveapplication.BulkLeaveApprovalRequest;
+import com.leavemarker.dto.leaveapplication.BulkLeaveApprovalResponse;
 import com.leavemarker.dto.leaveapplication.LeaveApplicationRequest;
 import com.leavemarker.dto.leaveapplication.LeaveApplicationResponse;
 import com.leavemarker.dto.leaveapplication.LeaveApprovalRequest;
@@ -50,12 +53,20 @@ public class LeaveApplicationController {
         return ResponseEntity.ok(ApiResponse.success("Leave applications retrieved successfully", response));
     }
 
+    @GetMapping("/my-leaves/page")
+    public ResponseEntity<ApiResponse<CursorPageResponse<LeaveApplicationResponse>>> getMyLeaveApplicationsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        CursorPageResponse<LeaveApplicationResponse> response =
+                leaveApplicationService.getMyLeaveApplicationsPage(cursor, size, currentUser);
+        return ResponseEntity.ok(ApiResponse.success("Leave applications retrieved successfully", response));
+    }
+
     @GetMapping("/my-leaves/pending/count")
     public ResponseEntity<ApiResponse<Long>> getPendingApplicationsCount(
             @AuthenticationPrincipal UserPrincipal currentUser) {
-        long count = leaveApplicationService.getMyLeaveApplications(currentUser).stream()
-                .filter(app -> "PENDING".equals(app.getStatus()))
-                .count();
+        long count = leaveApplicationService.countMyPendingApplications(currentUser);
         return ResponseEntity.ok(ApiResponse.success("Pending applications count retrieved successfully", count));
     }
 
@@ -86,6 +97,19 @@ public class LeaveApplicationController {
         return ResponseEntity.ok(ApiResponse.success("Leave applications retrieved successfully", response));
     }
 
+    @GetMapping("/date-range/page")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN', 'MANAGER')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<LeaveApplicationResponse>>> getLeaveApplicationsByDateRangePage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        CursorPageResponse<LeaveApplicationResponse> response = leaveApplicationService.getLeaveApplicationsByDateRangePage(
+                startDate, endDate, cursor, size, currentUser);
+        return ResponseEntity.ok(ApiResponse.success("Leave applications retrieved successfully", response));
+    }
+
     @PostMapping("/{id}/approve/manager")
     @PreAuthorize("hasRole('MANAGER')")
     public ResponseEntity<ApiResponse<LeaveApplicationResponse>> approveByManager(
@@ -106,6 +130,24 @@ public class LeaveApplicationController {
         return ResponseEntity.ok(ApiResponse.success("Leave application processed successfully", response));
     }
 
+    @PostMapping("/bulk-approve/manager")
+    @PreAuthorize("hasRole('MANAGER')")
+    public ResponseEntity<ApiResponse<BulkLeaveApprovalResponse>> bulkApproveByManager(
+            @Valid @RequestBody BulkLeaveApprovalRequest request,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        BulkLeaveApprovalResponse response = leaveApplicationService.bulkApproveByManager(request, currentUser);
+        return ResponseEntity.ok(ApiResponse.success("Leave applications processed", response));
+    }
+
+    @PostMapping("/bulk-approve/hr")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN')")
+    public ResponseEntity<ApiResponse<BulkLeaveApprovalResponse>> bulkApproveByHr(
+            @Valid @RequestBody BulkLeaveApprovalRequest request,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        BulkLeaveApprovalResponse response = leaveApplicationService.bulkApproveByHr(request, currentUser);
+        return ResponseEntity.ok(ApiResponse.success("Leave applications processed", response));
+    }
+
     @PostMapping("/{id}/cancel")
     public ResponseEntity<ApiResponse<LeaveApplicationResponse>> cancelLeave(
             @PathVariable Long id,
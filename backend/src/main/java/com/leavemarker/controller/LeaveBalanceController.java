@@ -1,24 +1,33 @@
 package com.leavemarker.controller;
 
+import java.time.LocalDateTime;
 import java.time.Year;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.leavemarker.dto.ApiResponse;
+import com.leavemarker.dto.leavebalance.BalanceInitializationJobResponse;
+import com.leavemarker.dto.leavebalance.LeaveBalanceAsOfResponse;
 import com.leavemarker.dto.leavebalance.LeaveBalanceResponse;
-import com.leavemarker.entity.Employee;
+import com.leavemarker.dto.leavebalance.YearEndClosingResponse;
 import com.leavemarker.entity.LeaveBalance;
-import com.leavemarker.repository.EmployeeRepository;
+import com.leavemarker.enums.LeaveType;
 import com.leavemarker.security.UserPrincipal;
+import com.leavemarker.service.LeaveBalanceInitializationService;
 import com.leavemarker.service.LeaveBalanceService;
+import com.leavemarker.service.LeaveLedgerService;
+import com.leavemarker.service.YearEndClosingService;
 
 import lombok.RequiredArgsConstructor;
 import java.util.stream.Collectors;
@@ -29,7 +38,9 @@ import java.util.stream.Collectors;
 public class LeaveBalanceController {
 
     private final LeaveBalanceService leaveBalanceService;
-    private final EmployeeRepository employeeRepository;
+    private final LeaveLedgerService leaveLedgerService;
+    private final YearEndClosingService yearEndClosingService;
+    private final LeaveBalanceInitializationService leaveBalanceInitializationService;
 
     @GetMapping("/my-balance")
     public ResponseEntity<ApiResponse<List<LeaveBalanceResponse>>> getMyLeaveBalance(
@@ -53,6 +64,7 @@ public class LeaveBalanceController {
                 .pending(balance.getPending())
                 .available(balance.getAvailable())
                 .carriedForward(balance.getCarriedForward())
+                .encashableDays(balance.getEncashableDays())
                 .build())
             .collect(Collectors.toList());
 
@@ -62,6 +74,27 @@ public class LeaveBalanceController {
         ));
     }
 
+    @GetMapping("/my-balance/as-of")
+    public ResponseEntity<ApiResponse<LeaveBalanceAsOfResponse>> getMyLeaveBalanceAsOf(
+            @RequestParam LeaveType leaveType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+            @RequestParam(required = false) Integer year,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        Integer targetYear = year != null ? year : asOf.getYear();
+        LeaveBalanceAsOfResponse response = leaveLedgerService.getBalanceAsOf(
+            currentUser.getId(),
+            leaveType,
+            targetYear,
+            asOf
+        );
+
+        return ResponseEntity.ok(ApiResponse.success(
+            "Leave balance retrieved successfully",
+            response
+        ));
+    }
+
     @PostMapping("/initialize")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN')")
     public ResponseEntity<ApiResponse<String>> initializeLeaveBalances(
@@ -70,25 +103,73 @@ public class LeaveBalanceController {
 
         Integer targetYear = year != null ? year : Year.now().getValue();
 
-        // Get all active employees in the company
-        List<Employee> employees = employeeRepository
-            .findByCompanyIdAndDeletedFalse(currentUser.getCompanyId());
-
-        int initializedCount = 0;
-        for (Employee employee : employees) {
-            leaveBalanceService.initializeLeaveBalanceForEmployee(
-                employee.getId(),
-                targetYear
-            );
-            initializedCount++;
-        }
+        int createdCount = leaveBalanceService.initializeCompanyBalances(currentUser.getCompanyId(), targetYear);
 
         String message = String.format(
-            "Leave balances initialized for %d employees for year %d",
-            initializedCount,
+            "%d leave balances created for year %d",
+            createdCount,
             targetYear
         );
 
         return ResponseEntity.ok(ApiResponse.success(message, message));
     }
+
+    @PostMapping("/initialize/async")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN')")
+    public ResponseEntity<ApiResponse<BalanceInitializationJobResponse>> startBalanceInitialization(
+            @RequestParam(required = false) Integer year,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        Integer targetYear = year != null ? year : Year.now().getValue();
+        BalanceInitializationJobResponse response =
+            leaveBalanceInitializationService.start(currentUser.getCompanyId(), targetYear);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(
+            "Leave balance initialization started",
+            response
+        ));
+    }
+
+    @GetMapping("/initialize/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN')")
+    public ResponseEntity<ApiResponse<BalanceInitializationJobResponse>> getBalanceInitializationJob(
+            @PathVariable String jobId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        BalanceInitializationJobResponse response =
+            leaveBalanceInitializationService.getJob(jobId, currentUser.getCompanyId());
+
+        return ResponseEntity.ok(ApiResponse.success(
+            "Leave balance initialization progress retrieved successfully",
+            response
+        ));
+    }
+
+    @PostMapping("/year-end-closing")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN')")
+    public ResponseEntity<ApiResponse<YearEndClosingResponse>> startYearEndClosing(
+            @RequestParam Integer year,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        YearEndClosingResponse response = yearEndClosingService.startClosing(currentUser.getCompanyId(), year);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(
+            "Year-end closing started",
+            response
+        ));
+    }
+
+    @GetMapping("/year-end-closing")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN')")
+    public ResponseEntity<ApiResponse<YearEndClosingResponse>> getYearEndClosingProgress(
+            @RequestParam Integer year,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        YearEndClosingResponse response = yearEndClosingService.getProgress(currentUser.getCompanyId(), year);
+
+        return ResponseEntity.ok(ApiResponse.success(
+            "Year-end closing progress retrieved successfully",
+            response
+        ));
+    }
 }
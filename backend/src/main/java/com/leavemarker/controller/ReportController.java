@@ -1,19 +1,32 @@
 package com.leavemarker.controller;
 
+import com.leavemarker.dto.ApiResponse;
+import com.leavemarker.dto.report.ReportJobRequest;
+import com.leavemarker.dto.report.ReportJobResponse;
+import com.leavemarker.enums.ReportType;
 import com.leavemarker.security.UserPrincipal;
+import com.leavemarker.service.ReportCacheService;
+import com.leavemarker.service.ReportJobService;
+import com.leavemarker.service.ReportJobService.ReportFile;
 import com.leavemarker.service.ReportService;
 import com.leavemarker.service.PlanValidationService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/reports")
@@ -21,65 +34,233 @@ import java.time.LocalDate;
 @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'HR_ADMIN', 'MANAGER')")
 public class ReportController {
 
+    // Tomcat's sendfile hand-off: the connector writes the file region itself once the handler returns
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final ReportService reportService;
     private final PlanValidationService planValidationService;
+    private final ReportJobService reportJobService;
+    private final ReportCacheService reportCacheService;
 
     @GetMapping("/leave-balance")
-    public ResponseEntity<byte[]> generateLeaveBalanceReport(
+    public ResponseEntity<StreamingResponseBody> generateLeaveBalanceReport(
             @RequestParam Integer year,
             @RequestParam(defaultValue = "excel") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @AuthenticationPrincipal UserPrincipal currentUser) {
         // Validate reports download access
         planValidationService.validateReportsDownloadAccess(currentUser.getCompanyId());
-
-        byte[] report = reportService.generateLeaveBalanceReport(year, currentUser, format);
+        boolean gzip = acceptsGzip(format, acceptEncoding);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(getMediaType(format));
+        setContentEncoding(headers, gzip);
         headers.setContentDispositionFormData("attachment",
                 "leave_balance_report_" + year + "." + format);
 
-        return new ResponseEntity<>(report, headers, HttpStatus.OK);
+        ReportCacheService.Key key = new ReportCacheService.Key(currentUser.getCompanyId(), ReportType.LEAVE_BALANCE,
+                String.valueOf(year), format, gzip);
+        return cachedReport(key, headers, ifNoneMatch,
+                () -> reportService.generateLeaveBalanceReport(year, currentUser, format, gzip));
     }
 
     @GetMapping("/attendance")
-    public ResponseEntity<byte[]> generateAttendanceReport(
+    public ResponseEntity<StreamingResponseBody> generateAttendanceReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(defaultValue = "excel") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @AuthenticationPrincipal UserPrincipal currentUser) {
         // Validate reports download access
         planValidationService.validateReportsDownloadAccess(currentUser.getCompanyId());
-
-        byte[] report = reportService.generateAttendanceReport(startDate, endDate, currentUser, format);
+        boolean gzip = acceptsGzip(format, acceptEncoding);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(getMediaType(format));
+        setContentEncoding(headers, gzip);
         headers.setContentDispositionFormData("attachment",
                 "attendance_report_" + startDate + "_to_" + endDate + "." + format);
 
-        return new ResponseEntity<>(report, headers, HttpStatus.OK);
+        ReportCacheService.Key key = new ReportCacheService.Key(currentUser.getCompanyId(), ReportType.ATTENDANCE,
+                startDate + "/" + endDate, format, gzip);
+        return cachedReport(key, headers, ifNoneMatch,
+                () -> reportService.generateAttendanceReport(startDate, endDate, currentUser, format, gzip));
     }
 
     @GetMapping("/leave-usage")
-    public ResponseEntity<byte[]> generateLeaveUsageReport(
+    public ResponseEntity<StreamingResponseBody> generateLeaveUsageReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(defaultValue = "excel") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @AuthenticationPrincipal UserPrincipal currentUser) {
         // Validate reports download access
         planValidationService.validateReportsDownloadAccess(currentUser.getCompanyId());
-
-        byte[] report = reportService.generateLeaveUsageReport(startDate, endDate, currentUser, format);
+        boolean gzip = acceptsGzip(format, acceptEncoding);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(getMediaType(format));
+        setContentEncoding(headers, gzip);
         headers.setContentDispositionFormData("attachment",
                 "leave_usage_report_" + startDate + "_to_" + endDate + "." + format);
 
+        ReportCacheService.Key key = new ReportCacheService.Key(currentUser.getCompanyId(), ReportType.LEAVE_USAGE,
+                startDate + "/" + endDate, format, gzip);
+        return cachedReport(key, headers, ifNoneMatch,
+                () -> reportService.generateLeaveUsageReport(startDate, endDate, currentUser, format, gzip));
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submitReportJob(
+            @Valid @RequestBody ReportJobRequest request,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        // Validate reports download access
+        planValidationService.validateReportsDownloadAccess(currentUser.getCompanyId());
+
+        ReportJobResponse response = reportJobService.submit(request, currentUser);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(
+                "Report generation started",
+                response
+        ));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> getReportJob(
+            @PathVariable String jobId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        ReportJobResponse response = reportJobService.getJob(jobId, currentUser.getCompanyId());
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Report job retrieved successfully",
+                response
+        ));
+    }
+
+    /**
+     * Serves a finished report. A single byte range is answered with 206 so interrupted downloads can resume;
+     * multiple ranges would need a multipart body, so the whole file is sent instead.
+     * Where the connector supports sendfile the file is handed to it and sent by the kernel without
+     * passing through the JVM; otherwise it is copied to the response stream.
+     */
+    @GetMapping("/jobs/{jobId}/download")
+    public ResponseEntity<StreamingResponseBody> downloadReport(
+            @PathVariable String jobId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            HttpServletRequest request) {
+
+        ReportFile file = reportJobService.getFile(jobId, currentUser.getCompanyId());
+        long size = file.sizeBytes();
+        String etag = "\"" + jobId + "\"";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(getMediaType(file.format()));
+        headers.setContentDispositionFormData("attachment", file.fileName());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(etag);
+
+        List<HttpRange> ranges = ifRange == null || ifRange.equals(etag) ? parseRanges(range) : List.of();
+        if (ranges.size() != 1) {
+            headers.setContentLength(size);
+            return fileResponse(request, file, 0, size, headers, HttpStatus.OK);
+        }
+
+        long start;
+        long end;
+        try {
+            start = ranges.get(0).getRangeStart(size);
+            end = ranges.get(0).getRangeEnd(size);
+        } catch (IllegalArgumentException ex) {
+            start = size;
+            end = size - 1;
+        }
+        if (start >= size || start > end) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                    .build();
+        }
+
+        long length = end - start + 1;
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        headers.setContentLength(length);
+        return fileResponse(request, file, start, length, headers, HttpStatus.PARTIAL_CONTENT);
+    }
+
+    /**
+     * Hands the region to the connector's sendfile when it is available, leaving the body empty;
+     * otherwise streams it through {@link ReportJobService#transfer}.
+     */
+    private ResponseEntity<StreamingResponseBody> fileResponse(HttpServletRequest request, ReportFile file,
+                                                               long position, long length, HttpHeaders headers,
+                                                               HttpStatus status) {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + length);
+            return new ResponseEntity<>(headers, status);
+        }
+        return new ResponseEntity<>(out -> reportJobService.transfer(file, position, length, out), headers, status);
+    }
+
+    /**
+     * Answers from the report cache when the company's data has not changed since the report was built:
+     * on a cache hit, 304 when the client holds that entry's ETag and the stored bytes otherwise.
+     * A miss always generates a fresh report, which is cached as it streams.
+     */
+    private ResponseEntity<StreamingResponseBody> cachedReport(ReportCacheService.Key key, HttpHeaders headers,
+                                                               String ifNoneMatch,
+                                                               Supplier<StreamingResponseBody> generator) {
+        ReportCacheService.Lookup lookup = reportCacheService.lookup(key);
+        headers.setETag(lookup.etag());
+
+        if (lookup.cached() != null) {
+            reportService.validateAccess(key.companyId());
+            if (reportCacheService.matches(ifNoneMatch, lookup.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
+            byte[] cached = lookup.cached();
+            headers.setContentLength(cached.length);
+            return new ResponseEntity<>(out -> out.write(cached), headers, HttpStatus.OK);
+        }
+
+        StreamingResponseBody report = reportCacheService.caching(key, lookup, generator.get());
         return new ResponseEntity<>(report, headers, HttpStatus.OK);
     }
 
+    // A malformed Range header is ignored, as RFC 9110 allows
+    private List<HttpRange> parseRanges(String range) {
+        if (range == null) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException ex) {
+            return List.of();
+        }
+    }
+
+    // Only CSV is compressed; an xlsx file is already a zip archive
+    private boolean acceptsGzip(String format, String acceptEncoding) {
+        return "csv".equalsIgnoreCase(format) && acceptEncoding != null
+                && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private void setContentEncoding(HttpHeaders headers, boolean gzip) {
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+    }
+
     private MediaType getMediaType(String format) {
         if ("csv".equalsIgnoreCase(format)) {
             return MediaType.parseMediaType("text/csv");
@@ -0,0 +1,17 @@
+package com.leavemarker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> items;
+    // Opaque token for the next page; null on the last page
+    private String nextCursor;
+    private boolean hasMore;
+}
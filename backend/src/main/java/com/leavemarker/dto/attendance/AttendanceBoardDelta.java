@@ -0,0 +1,18 @@
+package com.leavemarker.dto.attendance;
+
+import com.leavemarker.enums.PresenceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceBoardDelta {
+    private Long employeeId;
+    private PresenceStatus previousStatus;
+    private PresenceStatus status;
+    private AttendanceBoardResponse board;
+}
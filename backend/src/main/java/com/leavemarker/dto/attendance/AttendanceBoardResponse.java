@@ -0,0 +1,26 @@
+package com.leavemarker.dto.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceBoardResponse {
+    private LocalDate date;
+    private Integer activeEmployees;
+    private Integer in;
+    private Integer out;
+    private Integer halfDay;
+    private Integer onLeave;
+    private Integer absent;
+    private Integer notIn;
+    private Integer wfh;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.leavemarker.dto.attendance;
+
+import com.leavemarker.enums.PunchRejectionReason;
+import com.leavemarker.enums.WorkType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RejectedPunchResponse {
+
+    private Long id;
+    private Long employeeId;
+    private String employeeName;
+    private LocalDate date;
+    private LocalTime punchTime;
+    private Boolean punchIn;
+    private WorkType workType;
+    private PunchRejectionReason reason;
+    private String message;
+    private LocalDateTime rejectedAt;
+}
@@ -13,6 +13,10 @@ public class JwtAuthResponse {
     private String accessToken;
     @Builder.Default
     private String tokenType = "Bearer";
+    // Access token lifetime in seconds
+    private Long expiresIn;
+    private String refreshToken;
+    private Long refreshExpiresIn;
     private Long userId;
     private String email;
     private String fullName;
@@ -0,0 +1,10 @@
+package com.leavemarker.dto.auth;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+
+    // Optional for browsers, which send the refresh_token cookie instead
+    private String refreshToken;
+}
@@ -0,0 +1,22 @@
+package com.leavemarker.dto.leaveapplication;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkLeaveApprovalRequest {
+
+    @NotEmpty(message = "At least one application id is required")
+    @Size(max = 200, message = "At most 200 applications can be processed at once")
+    private List<@NotNull Long> applicationIds;
+
+    @NotNull(message = "Approval status is required")
+    private Boolean approved;
+
+    @Size(max = 500, message = "Reason must not exceed 500 characters")
+    private String reason;
+}
@@ -0,0 +1,19 @@
+package com.leavemarker.dto.leaveapplication;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkLeaveApprovalResponse {
+
+    private Integer succeeded;
+    private Integer failed;
+    private List<BulkLeaveApprovalResult> results;
+}
@@ -0,0 +1,19 @@
+package com.leavemarker.dto.leaveapplication;
+
+import com.leavemarker.enums.LeaveStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkLeaveApprovalResult {
+
+    private Long applicationId;
+    private Boolean success;
+    private LeaveStatus status;
+    private String message;
+}
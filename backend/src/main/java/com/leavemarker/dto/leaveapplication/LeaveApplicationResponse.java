@@ -2,7 +2,6 @@ package com.leavemarker.dto.leaveapplication;
 
 import com.leavemarker.enums.LeaveStatus;
 import com.leavemarker.enums.LeaveType;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,8 +9,6 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Data
-@Builder
-@AllArgsConstructor
 @NoArgsConstructor
 public class LeaveApplicationResponse {
 
@@ -36,4 +33,54 @@ public class LeaveApplicationResponse {
     private String rejectionReason;
     private LocalDate rejectionDate;
     private Boolean requiresHrApproval;
+
+    /**
+     * Also the constructor {@code LeaveApplicationRepository.RESPONSE_PROJECTION} selects into, which
+     * passes its arguments in this order. It is written out so that reordering the fields cannot
+     * silently shift the projection's arguments.
+     */
+    @Builder
+    public LeaveApplicationResponse(Long id,
+                                    Long employeeId,
+                                    String employeeName,
+                                    String employeeEmail,
+                                    LeaveType leaveType,
+                                    LocalDate startDate,
+                                    LocalDate endDate,
+                                    Double numberOfDays,
+                                    Boolean isHalfDay,
+                                    String reason,
+                                    String attachmentUrl,
+                                    LeaveStatus status,
+                                    Long approvedByManagerId,
+                                    String approvedByManagerName,
+                                    LocalDate managerApprovalDate,
+                                    Long approvedByHrId,
+                                    String approvedByHrName,
+                                    LocalDate hrApprovalDate,
+                                    String rejectionReason,
+                                    LocalDate rejectionDate,
+                                    Boolean requiresHrApproval) {
+        this.id = id;
+        this.employeeId = employeeId;
+        this.employeeName = employeeName;
+        this.employeeEmail = employeeEmail;
+        this.leaveType = leaveType;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.numberOfDays = numberOfDays;
+        this.isHalfDay = isHalfDay;
+        this.reason = reason;
+        this.attachmentUrl = attachmentUrl;
+        this.status = status;
+        this.approvedByManagerId = approvedByManagerId;
+        this.approvedByManagerName = approvedByManagerName;
+        this.managerApprovalDate = managerApprovalDate;
+        this.approvedByHrId = approvedByHrId;
+        this.approvedByHrName = approvedByHrName;
+        this.hrApprovalDate = hrApprovalDate;
+        this.rejectionReason = rejectionReason;
+        this.rejectionDate = rejectionDate;
+        this.requiresHrApproval = requiresHrApproval;
+    }
 }
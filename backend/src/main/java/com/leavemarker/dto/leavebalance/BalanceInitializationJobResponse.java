@@ -0,0 +1,25 @@
+package com.leavemarker.dto.leavebalance;
+
+import com.leavemarker.enums.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceInitializationJobResponse {
+    private String jobId;
+    private Integer year;
+    private JobStatus status;
+    private Long totalEmployees;
+    private Long processedEmployees;
+    private Long balancesCreated;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
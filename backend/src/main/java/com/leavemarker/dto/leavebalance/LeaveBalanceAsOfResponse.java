@@ -0,0 +1,23 @@
+package com.leavemarker.dto.leavebalance;
+
+import com.leavemarker.enums.LeaveType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveBalanceAsOfResponse {
+    private LeaveType leaveType;
+    private Integer year;
+    private LocalDateTime asOf;
+    private Double totalQuota;
+    private Double used;
+    private Double pending;
+    private Double available;
+}
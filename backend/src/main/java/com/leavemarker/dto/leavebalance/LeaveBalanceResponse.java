@@ -19,4 +19,5 @@ public class LeaveBalanceResponse {
     private Double pending;
     private Double available;
     private Double carriedForward;
+    private Double encashableDays;
 }
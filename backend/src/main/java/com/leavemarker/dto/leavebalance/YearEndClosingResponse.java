@@ -0,0 +1,26 @@
+package com.leavemarker.dto.leavebalance;
+
+import com.leavemarker.enums.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class YearEndClosingResponse {
+    private Long runId;
+    private Integer year;
+    private JobStatus status;
+    private Integer totalBalances;
+    private Integer processedBalances;
+    private Double carriedForwardDays;
+    private Double encashableDays;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,21 @@
+package com.leavemarker.dto.report;
+
+import com.leavemarker.enums.AttendanceStatus;
+import com.leavemarker.enums.WorkType;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * One row of the attendance report, selected directly by the report query.
+ */
+public record AttendanceReportRow(
+        String employeeId,
+        String employeeName,
+        LocalDate date,
+        LocalTime punchInTime,
+        LocalTime punchOutTime,
+        WorkType workType,
+        AttendanceStatus status,
+        String remarks) {
+}
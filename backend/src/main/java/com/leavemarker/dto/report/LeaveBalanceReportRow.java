@@ -0,0 +1,18 @@
+package com.leavemarker.dto.report;
+
+import com.leavemarker.enums.LeaveType;
+
+/**
+ * One row of the leave balance report, selected directly by the report query.
+ */
+public record LeaveBalanceReportRow(
+        String employeeId,
+        String employeeName,
+        LeaveType leaveType,
+        Integer year,
+        Double totalQuota,
+        Double used,
+        Double pending,
+        Double available,
+        Double carriedForward) {
+}
@@ -0,0 +1,21 @@
+package com.leavemarker.dto.report;
+
+import com.leavemarker.enums.LeaveStatus;
+import com.leavemarker.enums.LeaveType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the leave usage report, selected directly by the report query.
+ */
+public record LeaveUsageReportRow(
+        String employeeId,
+        String employeeName,
+        LeaveType leaveType,
+        LocalDate startDate,
+        LocalDate endDate,
+        Double numberOfDays,
+        LeaveStatus status,
+        LocalDateTime appliedAt) {
+}
@@ -0,0 +1,24 @@
+package com.leavemarker.dto.report;
+
+import com.leavemarker.enums.ReportType;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class ReportJobRequest {
+
+    @NotNull(message = "Report type is required")
+    private ReportType type;
+
+    private String format = "excel";
+
+    // Required for LEAVE_BALANCE
+    private Integer year;
+
+    // Required for ATTENDANCE and LEAVE_USAGE
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+}
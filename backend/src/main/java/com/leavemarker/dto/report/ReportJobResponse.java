@@ -0,0 +1,27 @@
+package com.leavemarker.dto.report;
+
+import com.leavemarker.enums.JobStatus;
+import com.leavemarker.enums.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private String jobId;
+    private ReportType type;
+    private String format;
+    private JobStatus status;
+    private String fileName;
+    private Long sizeBytes;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+}
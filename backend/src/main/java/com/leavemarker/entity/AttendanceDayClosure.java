@@ -0,0 +1,45 @@
+package com.leavemarker.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Marks a company's attendance day as closed so that the end-of-day job runs once per day.
+ */
+@Entity
+@Table(name = "attendance_day_closures",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"company_id", "date"})
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceDayClosure extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id", nullable = false)
+    private Company company;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer punchesClosed = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer absentMarked = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer leaveMarked = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer holidayMarked = 0;
+}
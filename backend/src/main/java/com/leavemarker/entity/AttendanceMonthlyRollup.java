@@ -0,0 +1,58 @@
+package com.leavemarker.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Per-employee attendance counters for one month, kept in step with the attendance rows by
+ * {@code AttendanceRollupService} and the write-behind punch statements.
+ */
+@Entity
+@Table(name = "attendance_monthly_rollups",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"employee_id", "year", "month"})
+       },
+       indexes = {
+           @Index(name = "idx_attendance_rollups_company_month", columnList = "company_id, year, month")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceMonthlyRollup extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id", nullable = false)
+    private Company company;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Column(nullable = false)
+    private Integer month;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer presentDays = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer absentDays = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer halfDays = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer wfhDays = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long workedMinutes = 0L;
+}
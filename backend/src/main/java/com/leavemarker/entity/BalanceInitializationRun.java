@@ -0,0 +1,67 @@
+package com.leavemarker.entity;
+
+import com.leavemarker.enums.JobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a background balance initialization. {@code jobId} is the handle clients poll with;
+ * {@code lastEmployeeId} is the checkpoint: every active employee with a smaller or equal id has been
+ * processed, so a run interrupted by a crash or failure resumes right after it.
+ */
+@Entity
+@Table(name = "balance_initialization_runs",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"job_id"})
+       },
+       indexes = {
+           @Index(name = "idx_balance_initialization_runs_company_year", columnList = "company_id, year")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceInitializationRun extends BaseEntity {
+
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id", nullable = false)
+    private Company company;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long lastEmployeeId = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long totalEmployees = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long processedEmployees = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long balancesCreated = 0L;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    @Column
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime completedAt;
+}
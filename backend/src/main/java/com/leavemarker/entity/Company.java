@@ -25,4 +25,14 @@ public class Company extends BaseEntity {
     @Column(nullable = false)
     @Builder.Default
     private Boolean active = true;
+
+    // Cache versions, written only by CompanyVersionService and never through the entity
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long dataGeneration;
+
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long subscriptionVersion;
+
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long holidayVersion;
 }
@@ -73,4 +73,9 @@ public class Employee extends BaseEntity {
 
     @Column
     private LocalDate passwordResetTokenExpiry;
+
+    // Bumped whenever role, status or credentials change so previously issued tokens stop being accepted
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long tokenVersion = 0L;
 }
@@ -0,0 +1,53 @@
+package com.leavemarker.entity;
+
+import com.leavemarker.enums.JobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One execution of a scheduled job, either for a single company or, when {@code company} is null,
+ * for the whole installation.
+ */
+@Entity
+@Table(name = "job_runs",
+       indexes = {
+           @Index(name = "idx_job_runs_job_started", columnList = "job_name, started_at")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobRun extends BaseEntity {
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id")
+    private Company company;
+
+    @Column(nullable = false, length = 100)
+    private String nodeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status;
+
+    @Column
+    private Integer itemsProcessed;
+
+    @Column
+    private Long durationMs;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,34 @@
+package com.leavemarker.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Marks a monthly accrual as done for a company so that running it again is a no-op.
+ */
+@Entity
+@Table(name = "leave_accrual_runs",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"company_id", "year", "month"})
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaveAccrualRun extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id", nullable = false)
+    private Company company;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Column(nullable = false)
+    private Integer month;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer balancesUpdated = 0;
+}
@@ -8,7 +8,11 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "leave_applications")
+@Table(name = "leave_applications",
+       indexes = {
+           @Index(name = "idx_leave_applications_employee_start", columnList = "employee_id, start_date, id"),
+           @Index(name = "idx_leave_applications_start", columnList = "start_date, id")
+       })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -46,4 +46,9 @@ public class LeaveBalance extends BaseEntity {
     @Column(nullable = false)
     @Builder.Default
     private Double carriedForward = 0.0;
+
+    // Unused days of a closed year that the policy lets the employee encash
+    @Column(nullable = false, columnDefinition = "double precision default 0")
+    @Builder.Default
+    private Double encashableDays = 0.0;
 }
@@ -0,0 +1,54 @@
+package com.leavemarker.entity;
+
+import com.leavemarker.enums.LeaveMovementType;
+import com.leavemarker.enums.LeaveType;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One movement of a leave balance. Rows are only ever inserted; the balance at any point in time
+ * is the latest {@link LeaveBalanceSnapshot} plus the entries written after it.
+ */
+@Entity
+@Table(name = "leave_balance_ledger",
+       indexes = {
+           @Index(name = "idx_leave_ledger_balance", columnList = "employee_id, leave_type, year, id")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaveBalanceLedgerEntry extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false, length = 30)
+    private LeaveType leaveType;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private LeaveMovementType movementType;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double quotaDelta = 0.0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double usedDelta = 0.0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double pendingDelta = 0.0;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "leave_application_id")
+    private LeaveApplication leaveApplication;
+}
@@ -0,0 +1,52 @@
+package com.leavemarker.entity;
+
+import com.leavemarker.enums.LeaveType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Balance totals folded from the ledger up to and including {@code lastEntryId}.
+ */
+@Entity
+@Table(name = "leave_balance_snapshots",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"employee_id", "leave_type", "year", "last_entry_id"})
+       },
+       indexes = {
+           @Index(name = "idx_leave_balance_snapshots_last_entry", columnList = "last_entry_id")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaveBalanceSnapshot extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false, length = 30)
+    private LeaveType leaveType;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    @Column(nullable = false)
+    private LocalDateTime takenAt;
+
+    @Column(nullable = false)
+    private Double totalQuota;
+
+    @Column(nullable = false)
+    private Double used;
+
+    @Column(nullable = false)
+    private Double pending;
+}
@@ -0,0 +1,50 @@
+package com.leavemarker.entity;
+
+import com.leavemarker.enums.PunchRejectionReason;
+import com.leavemarker.enums.WorkType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A punch that was accepted by write-behind ingestion but could not be recorded when the journal was
+ * flushed. Kept so that admins can see it and correct the employee's attendance.
+ */
+@Entity
+@Table(name = "rejected_punches",
+       indexes = {
+           @Index(name = "idx_rejected_punches_employee_date", columnList = "employee_id, date")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RejectedPunch extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private LocalTime punchTime;
+
+    @Column(nullable = false)
+    private Boolean punchIn;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private WorkType workType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PunchRejectionReason reason;
+
+    @Column(length = 1000)
+    private String message;
+}
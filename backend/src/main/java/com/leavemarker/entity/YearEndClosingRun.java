@@ -0,0 +1,64 @@
+package com.leavemarker.entity;
+
+import com.leavemarker.enums.JobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a company's year-end closing. {@code lastBalanceId} is the checkpoint: every balance
+ * with a smaller or equal id has been closed, so a crashed run resumes right after it.
+ */
+@Entity
+@Table(name = "year_end_closing_runs",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"company_id", "year"})
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class YearEndClosingRun extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id", nullable = false)
+    private Company company;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long lastBalanceId = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer totalBalances = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer processedBalances = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double carriedForwardDays = 0.0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double encashableDays = 0.0;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    @Column
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime completedAt;
+}
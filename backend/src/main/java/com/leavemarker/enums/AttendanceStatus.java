@@ -2,6 +2,7 @@ package com.leavemarker.enums;
 
 public enum AttendanceStatus {
     PRESENT,
+    HALF_DAY,
     ABSENT,
     LEAVE,
     HOLIDAY
@@ -0,0 +1,7 @@
+package com.leavemarker.enums;
+
+public enum JobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
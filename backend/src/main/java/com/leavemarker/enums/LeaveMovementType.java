@@ -0,0 +1,12 @@
+package com.leavemarker.enums;
+
+public enum LeaveMovementType {
+    OPENING,
+    ACCRUAL,
+    APPLY,
+    APPROVE,
+    REJECT,
+    CANCEL,
+    CARRY_FORWARD,
+    ADJUSTMENT
+}
@@ -0,0 +1,20 @@
+package com.leavemarker.enums;
+
+/**
+ * Plan feature flags, packed into an int bitmask by {@link #mask()}.
+ */
+public enum PlanFeature {
+    ATTENDANCE_MANAGEMENT,
+    REPORTS_DOWNLOAD,
+    MULTIPLE_LEAVE_POLICIES,
+    UNLIMITED_HOLIDAYS,
+    ATTENDANCE_RATE_ANALYTICS,
+    ADVANCED_REPORTS,
+    CUSTOM_LEAVE_TYPES,
+    API_ACCESS,
+    PRIORITY_SUPPORT;
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+}
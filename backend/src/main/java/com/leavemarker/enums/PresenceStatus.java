@@ -0,0 +1,13 @@
+package com.leavemarker.enums;
+
+/**
+ * Where an employee stands today on the live attendance board.
+ */
+public enum PresenceStatus {
+    NOT_IN,
+    IN,
+    OUT,
+    HALF_DAY,
+    ON_LEAVE,
+    ABSENT
+}
@@ -0,0 +1,8 @@
+package com.leavemarker.enums;
+
+public enum PunchRejectionReason {
+    // Another punch for the same employee and day was recorded first, e.g. on another node
+    CONFLICT,
+    // The database refused the row
+    INVALID
+}
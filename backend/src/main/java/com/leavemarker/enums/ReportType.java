@@ -0,0 +1,7 @@
+package com.leavemarker.enums;
+
+public enum ReportType {
+    LEAVE_BALANCE,
+    ATTENDANCE,
+    LEAVE_USAGE
+}
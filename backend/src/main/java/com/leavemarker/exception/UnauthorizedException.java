@@ -0,0 +1,8 @@
+package com.leavemarker.exception;
+
+public class UnauthorizedException extends RuntimeException {
+
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
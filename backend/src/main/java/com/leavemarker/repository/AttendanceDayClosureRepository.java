@@ -0,0 +1,39 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.AttendanceDayClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AttendanceDayClosureRepository extends JpaRepository<AttendanceDayClosure, Long> {
+
+    /**
+     * Records the closure and returns 1, or returns 0 when the day was already closed for the company.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO attendance_day_closures (company_id, date, punches_closed, absent_marked, leave_marked, " +
+                   "holiday_marked, created_at, updated_at, deleted) " +
+                   "VALUES (:companyId, :date, 0, 0, 0, 0, :now, :now, false) " +
+                   "ON CONFLICT (company_id, date) DO NOTHING",
+           nativeQuery = true)
+    int claim(@Param("companyId") Long companyId, @Param("date") LocalDate date, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE AttendanceDayClosure c SET c.punchesClosed = :punchesClosed, c.absentMarked = :absentMarked, " +
+           "c.leaveMarked = :leaveMarked, c.holidayMarked = :holidayMarked " +
+           "WHERE c.company.id = :companyId AND c.date = :date")
+    int recordResult(@Param("companyId") Long companyId, @Param("date") LocalDate date,
+                     @Param("punchesClosed") Integer punchesClosed, @Param("absentMarked") Integer absentMarked,
+                     @Param("leaveMarked") Integer leaveMarked, @Param("holidayMarked") Integer holidayMarked);
+
+    @Query("SELECT c.company.id FROM AttendanceDayClosure c WHERE c.company.id IN :companyIds AND c.date = :date")
+    List<Long> findClosedCompanyIds(@Param("companyIds") Collection<Long> companyIds, @Param("date") LocalDate date);
+}
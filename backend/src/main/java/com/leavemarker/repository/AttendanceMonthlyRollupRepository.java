@@ -0,0 +1,108 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.AttendanceMonthlyRollup;
+import com.leavemarker.enums.IndianState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttendanceMonthlyRollupRepository extends JpaRepository<AttendanceMonthlyRollup, Long> {
+
+    String INSERT_COLUMNS =
+            "INSERT INTO attendance_monthly_rollups (employee_id, company_id, year, month, present_days, absent_days, " +
+            "half_days, wfh_days, worked_minutes, created_at, updated_at, deleted) ";
+
+    // Adds the inserted row's counters to an existing rollup
+    String ADD_ON_CONFLICT =
+            "ON CONFLICT (employee_id, year, month) DO UPDATE SET " +
+            "present_days = attendance_monthly_rollups.present_days + EXCLUDED.present_days, " +
+            "absent_days = attendance_monthly_rollups.absent_days + EXCLUDED.absent_days, " +
+            "half_days = attendance_monthly_rollups.half_days + EXCLUDED.half_days, " +
+            "wfh_days = attendance_monthly_rollups.wfh_days + EXCLUDED.wfh_days, " +
+            "worked_minutes = attendance_monthly_rollups.worked_minutes + EXCLUDED.worked_minutes, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    Optional<AttendanceMonthlyRollup> findByEmployeeIdAndYearAndMonthAndDeletedFalse(Long employeeId, Integer year,
+                                                                                     Integer month);
+
+    @Modifying
+    @Query(value = INSERT_COLUMNS +
+                   "VALUES (:employeeId, :companyId, :year, :month, :presentDays, :absentDays, :halfDays, :wfhDays, " +
+                   ":workedMinutes, :now, :now, false) " + ADD_ON_CONFLICT,
+           nativeQuery = true)
+    int addCounts(@Param("employeeId") Long employeeId,
+                  @Param("companyId") Long companyId,
+                  @Param("year") Integer year,
+                  @Param("month") Integer month,
+                  @Param("presentDays") int presentDays,
+                  @Param("absentDays") int absentDays,
+                  @Param("halfDays") int halfDays,
+                  @Param("wfhDays") int wfhDays,
+                  @Param("workedMinutes") long workedMinutes,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Recomputes every rollup from the attendance rows, overwriting the stored counters.
+     */
+    @Modifying
+    @Query(value = INSERT_COLUMNS +
+                   "SELECT a.employee_id, e.company_id, CAST(EXTRACT(YEAR FROM a.date) AS int), " +
+                   "  CAST(EXTRACT(MONTH FROM a.date) AS int), " +
+                   "  COUNT(*) FILTER (WHERE a.status = 'PRESENT'), " +
+                   "  COUNT(*) FILTER (WHERE a.status = 'ABSENT'), " +
+                   "  COUNT(*) FILTER (WHERE a.status = 'HALF_DAY'), " +
+                   "  COUNT(*) FILTER (WHERE a.status IN ('PRESENT', 'HALF_DAY') AND a.work_type = 'WFH'), " +
+                   "  COALESCE(SUM(CAST(FLOOR(EXTRACT(EPOCH FROM (a.punch_out_time - a.punch_in_time)) / 60) AS bigint)) " +
+                   "    FILTER (WHERE a.punch_out_time >= a.punch_in_time), 0), " +
+                   "  :now, :now, false " +
+                   "FROM attendance a JOIN employees e ON e.id = a.employee_id " +
+                   "WHERE a.deleted = false " +
+                   "GROUP BY a.employee_id, e.company_id, CAST(EXTRACT(YEAR FROM a.date) AS int), " +
+                   "  CAST(EXTRACT(MONTH FROM a.date) AS int) " +
+                   "ON CONFLICT (employee_id, year, month) DO UPDATE SET " +
+                   "present_days = EXCLUDED.present_days, absent_days = EXCLUDED.absent_days, " +
+                   "half_days = EXCLUDED.half_days, wfh_days = EXCLUDED.wfh_days, " +
+                   "worked_minutes = EXCLUDED.worked_minutes, updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int rebuildAll(@Param("now") LocalDateTime now);
+
+    /**
+     * Active employees per work location with the sum of their rollups for the month. Employees without
+     * a rollup count towards the headcount with zero days; inactive employees are left out of both.
+     */
+    @Query("SELECT e.workLocation AS workLocation, COUNT(e) AS employees, " +
+           "COALESCE(SUM(r.presentDays), 0) AS presentDays, COALESCE(SUM(r.absentDays), 0) AS absentDays, " +
+           "COALESCE(SUM(r.halfDays), 0) AS halfDays, COALESCE(SUM(r.wfhDays), 0) AS wfhDays, " +
+           "COALESCE(SUM(r.workedMinutes), 0) AS workedMinutes " +
+           "FROM Employee e LEFT JOIN AttendanceMonthlyRollup r " +
+           "  ON r.employee = e AND r.year = :year AND r.month = :month AND r.deleted = false " +
+           "WHERE e.company.id = :companyId AND e.status = com.leavemarker.enums.EmployeeStatus.ACTIVE " +
+           "AND e.deleted = false " +
+           "GROUP BY e.workLocation")
+    List<LocationSummaryView> summarizeActiveByLocation(@Param("companyId") Long companyId,
+                                                        @Param("year") Integer year,
+                                                        @Param("month") Integer month);
+
+    interface LocationSummaryView {
+        IndianState getWorkLocation();
+
+        Long getEmployees();
+
+        Long getPresentDays();
+
+        Long getAbsentDays();
+
+        Long getHalfDays();
+
+        Long getWfhDays();
+
+        Long getWorkedMinutes();
+    }
+}
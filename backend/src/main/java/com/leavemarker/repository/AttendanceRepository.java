@@ -1,20 +1,46 @@
 package com.leavemarker.repository;
 
+import com.leavemarker.dto.report.AttendanceReportRow;
 import com.leavemarker.entity.Attendance;
+import com.leavemarker.enums.AttendanceStatus;
+import com.leavemarker.enums.WorkType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
+public interface AttendanceRepository extends JpaRepository<Attendance, Long>, AttendanceRepositoryCustom {
 
     Optional<Attendance> findByEmployeeIdAndDateAndDeletedFalse(Long employeeId, LocalDate date);
 
+    /**
+     * Locks the row for the rest of the transaction, so its rollup contribution cannot change
+     * underneath a caller that is about to update it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Attendance a WHERE a.employee.id = :employeeId AND a.date = :date AND a.deleted = false")
+    Optional<Attendance> findByEmployeeIdAndDateForUpdate(@Param("employeeId") Long employeeId,
+                                                          @Param("date") LocalDate date);
+
+    /**
+     * Locks the row for the rest of the transaction, like {@link #findByEmployeeIdAndDateForUpdate}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Attendance a WHERE a.id = :id")
+    Optional<Attendance> findByIdForUpdate(@Param("id") Long id);
+
     List<Attendance> findByEmployeeIdAndDeletedFalse(Long employeeId);
 
     @Query("SELECT a FROM Attendance a WHERE a.employee.id = :employeeId AND a.date BETWEEN :startDate AND :endDate AND a.deleted = false")
@@ -22,11 +48,38 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
                                                    @Param("startDate") LocalDate startDate,
                                                    @Param("endDate") LocalDate endDate);
 
-    @Query("SELECT a FROM Attendance a WHERE a.employee.company.id = :companyId AND a.date BETWEEN :startDate AND :endDate AND a.deleted = false")
+    @Query("SELECT a FROM Attendance a JOIN FETCH a.employee e WHERE e.company.id = :companyId " +
+           "AND a.date BETWEEN :startDate AND :endDate AND a.deleted = false")
     List<Attendance> findByCompanyIdAndDateRange(@Param("companyId") Long companyId,
                                                   @Param("startDate") LocalDate startDate,
                                                   @Param("endDate") LocalDate endDate);
 
+    /**
+     * Attendance report rows in one join, read through a cursor. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.leavemarker.dto.report.AttendanceReportRow(e.employeeId, e.fullName, a.date, " +
+           "a.punchInTime, a.punchOutTime, a.workType, a.status, a.remarks) " +
+           "FROM Attendance a JOIN a.employee e WHERE e.company.id = :companyId " +
+           "AND a.date BETWEEN :startDate AND :endDate AND a.deleted = false ORDER BY a.date, a.id")
+    Stream<AttendanceReportRow> streamReportRows(@Param("companyId") Long companyId,
+                                                 @Param("startDate") LocalDate startDate,
+                                                 @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT a.employee.id AS employeeId, a.status AS status, a.punchOutTime AS punchOutTime, a.workType AS workType " +
+           "FROM Attendance a WHERE a.employee.company.id = :companyId AND a.date = :date AND a.deleted = false")
+    List<DayStatusView> findDayStatuses(@Param("companyId") Long companyId, @Param("date") LocalDate date);
+
     @Query("SELECT a FROM Attendance a WHERE a.correctionRequested = true AND a.correctionApproved = false AND a.employee.company.id = :companyId AND a.deleted = false")
     List<Attendance> findPendingCorrections(@Param("companyId") Long companyId);
+
+    interface DayStatusView {
+        Long getEmployeeId();
+
+        AttendanceStatus getStatus();
+
+        LocalTime getPunchOutTime();
+
+        WorkType getWorkType();
+    }
 }
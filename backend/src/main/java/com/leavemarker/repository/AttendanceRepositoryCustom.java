@@ -0,0 +1,36 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.enums.WorkType;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface AttendanceRepositoryCustom {
+
+    /**
+     * Writes punches in two JDBC batches: punch-ins first, then punch-outs. Both are idempotent,
+     * so replaying a punch that was already written changes nothing.
+     * Returns the punches that changed nothing: a punch-in for a day that already has a row, or a
+     * punch-out for a day without an open punch-in.
+     */
+    List<Punch> applyPunches(Collection<Punch> punches);
+
+    /**
+     * Closes a company's attendance day in one statement: open punches are punched out at
+     * {@code autoPunchOut}, and active employees without a row get LEAVE, HOLIDAY or (on a working day)
+     * ABSENT. Rows that already exist are never touched apart from the punch-out.
+     */
+    DayCloseResult closeDay(long companyId, LocalDate date, LocalTime autoPunchOut, boolean weekend);
+
+    record Punch(long employeeId, LocalDate date, LocalTime time, boolean punchIn, WorkType workType) {
+    }
+
+    record DayCloseResult(int punchesClosed, int absentMarked, int leaveMarked, int holidayMarked) {
+
+        public int total() {
+            return punchesClosed + absentMarked + leaveMarked + holidayMarked;
+        }
+    }
+}
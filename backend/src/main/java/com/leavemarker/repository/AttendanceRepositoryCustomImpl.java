@@ -0,0 +1,158 @@
+package com.leavemarker.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class AttendanceRepositoryCustomImpl implements AttendanceRepositoryCustom {
+
+    // Each statement also adds the row's change to the monthly rollup, the same way AttendanceRollupService does.
+    // The rollup upsert is the statement's last step and touches one row per attendance row written, so its
+    // update count tells whether the punch was applied.
+    private static final String PUNCH_IN_SQL =
+            "WITH inserted AS (" +
+            "  INSERT INTO attendance (employee_id, date, punch_in_time, work_type, status, correction_requested, " +
+            "    correction_approved, created_at, updated_at, deleted) " +
+            "  VALUES (?, ?, ?, ?, 'PRESENT', false, false, ?, ?, false) " +
+            "  ON CONFLICT (employee_id, date) DO NOTHING " +
+            "  RETURNING employee_id, date, work_type, created_at) " +
+            AttendanceMonthlyRollupRepository.INSERT_COLUMNS +
+            "SELECT i.employee_id, e.company_id, CAST(EXTRACT(YEAR FROM i.date) AS int), " +
+            "  CAST(EXTRACT(MONTH FROM i.date) AS int), 1, 0, 0, CASE WHEN i.work_type = 'WFH' THEN 1 ELSE 0 END, 0, " +
+            "  i.created_at, i.created_at, false " +
+            "FROM inserted i JOIN employees e ON e.id = i.employee_id " +
+            AttendanceMonthlyRollupRepository.ADD_ON_CONFLICT;
+
+    private static final String PUNCH_OUT_SQL =
+            "WITH updated AS (" +
+            "  UPDATE attendance SET punch_out_time = ?, updated_at = ? " +
+            "  WHERE employee_id = ? AND date = ? AND deleted = false AND punch_out_time IS NULL " +
+            "  RETURNING employee_id, date, punch_in_time, punch_out_time, updated_at) " +
+            AttendanceMonthlyRollupRepository.INSERT_COLUMNS +
+            "SELECT u.employee_id, e.company_id, CAST(EXTRACT(YEAR FROM u.date) AS int), " +
+            "  CAST(EXTRACT(MONTH FROM u.date) AS int), 0, 0, 0, 0, " +
+            "  CASE WHEN u.punch_in_time IS NOT NULL AND u.punch_out_time >= u.punch_in_time " +
+            "    THEN CAST(FLOOR(EXTRACT(EPOCH FROM (u.punch_out_time - u.punch_in_time)) / 60) AS bigint) " +
+            "    ELSE CAST(0 AS bigint) END, " +
+            "  u.updated_at, u.updated_at, false " +
+            "FROM updated u JOIN employees e ON e.id = u.employee_id " +
+            AttendanceMonthlyRollupRepository.ADD_ON_CONFLICT;
+
+    // Holidays win over leave because leave days never include holidays; weekends get no row at all
+    private static final String CLOSE_DAY_SQL =
+            "WITH closed AS (" +
+            "  UPDATE attendance a SET punch_out_time = GREATEST(a.punch_in_time, CAST(? AS time)), " +
+            "    remarks = CONCAT_WS(' | ', a.remarks, 'Auto punch-out at end of day'), updated_at = ? " +
+            "  FROM employees e " +
+            "  WHERE e.id = a.employee_id AND e.company_id = ? AND a.date = ? AND a.deleted = false " +
+            "    AND a.punch_in_time IS NOT NULL AND a.punch_out_time IS NULL " +
+            "  RETURNING a.employee_id, a.punch_in_time, a.punch_out_time), " +
+            "missing AS (" +
+            "  SELECT e.id AS employee_id, CASE " +
+            "    WHEN ? THEN NULL " +
+            "    WHEN EXISTS (SELECT 1 FROM holidays h WHERE h.company_id = e.company_id AND h.date = ? " +
+            "      AND h.active = true AND h.deleted = false AND (h.state = e.work_location OR h.state IS NULL)) " +
+            "      THEN 'HOLIDAY' " +
+            "    WHEN EXISTS (SELECT 1 FROM leave_applications l WHERE l.employee_id = e.id AND l.status = 'APPROVED' " +
+            "      AND l.deleted = false AND ? BETWEEN l.start_date AND l.end_date) THEN 'LEAVE' " +
+            "    ELSE 'ABSENT' END AS status " +
+            "  FROM employees e " +
+            "  WHERE e.company_id = ? AND e.status = 'ACTIVE' AND e.deleted = false AND e.date_of_joining <= ? " +
+            "    AND NOT EXISTS (SELECT 1 FROM attendance a WHERE a.employee_id = e.id AND a.date = ?)), " +
+            "inserted AS (" +
+            "  INSERT INTO attendance (employee_id, date, status, remarks, correction_requested, correction_approved, " +
+            "    created_at, updated_at, deleted) " +
+            "  SELECT m.employee_id, ?, m.status, 'Recorded at end of day', false, false, ?, ?, false " +
+            "  FROM missing m WHERE m.status IS NOT NULL " +
+            "  ON CONFLICT (employee_id, date) DO NOTHING " +
+            "  RETURNING employee_id, status), " +
+            "deltas AS (" +
+            "  SELECT c.employee_id, 0 AS absent_days, " +
+            "    CAST(FLOOR(EXTRACT(EPOCH FROM (c.punch_out_time - c.punch_in_time)) / 60) AS bigint) AS worked_minutes " +
+            "  FROM closed c " +
+            "  UNION ALL " +
+            "  SELECT i.employee_id, 1, CAST(0 AS bigint) FROM inserted i WHERE i.status = 'ABSENT'), " +
+            "rolled AS (" +
+            AttendanceMonthlyRollupRepository.INSERT_COLUMNS +
+            "  SELECT d.employee_id, ?, ?, ?, 0, SUM(d.absent_days), 0, 0, SUM(d.worked_minutes), ?, ?, false " +
+            "  FROM deltas d GROUP BY d.employee_id " +
+            AttendanceMonthlyRollupRepository.ADD_ON_CONFLICT + ") " +
+            "SELECT (SELECT COUNT(*) FROM closed) AS punches_closed, " +
+            "  (SELECT COUNT(*) FROM inserted WHERE status = 'ABSENT') AS absent_marked, " +
+            "  (SELECT COUNT(*) FROM inserted WHERE status = 'LEAVE') AS leave_marked, " +
+            "  (SELECT COUNT(*) FROM inserted WHERE status = 'HOLIDAY') AS holiday_marked";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Punch> applyPunches(Collection<Punch> punches) {
+        if (punches.isEmpty()) {
+            return List.of();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        ArrayList<Punch> punchIns = new ArrayList<>();
+        ArrayList<Punch> punchOuts = new ArrayList<>();
+        ArrayList<Object[]> punchInArgs = new ArrayList<>();
+        ArrayList<Object[]> punchOutArgs = new ArrayList<>();
+        for (Punch punch : punches) {
+            if (punch.punchIn()) {
+                punchIns.add(punch);
+                punchInArgs.add(new Object[]{
+                        punch.employeeId(), Date.valueOf(punch.date()), Time.valueOf(punch.time()),
+                        punch.workType() != null ? punch.workType().name() : null,
+                        now, now
+                });
+            } else {
+                punchOuts.add(punch);
+                punchOutArgs.add(new Object[]{
+                        Time.valueOf(punch.time()), now,
+                        punch.employeeId(), Date.valueOf(punch.date())
+                });
+            }
+        }
+
+        List<Punch> unapplied = new ArrayList<>();
+        if (!punchIns.isEmpty()) {
+            collectUnapplied(punchIns, jdbcTemplate.batchUpdate(PUNCH_IN_SQL, punchInArgs), unapplied);
+        }
+        if (!punchOuts.isEmpty()) {
+            collectUnapplied(punchOuts, jdbcTemplate.batchUpdate(PUNCH_OUT_SQL, punchOutArgs), unapplied);
+        }
+        return unapplied;
+    }
+
+    @Override
+    public DayCloseResult closeDay(long companyId, LocalDate date, LocalTime autoPunchOut, boolean weekend) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Date day = Date.valueOf(date);
+        return jdbcTemplate.queryForObject(CLOSE_DAY_SQL,
+                (rs, rowNum) -> new DayCloseResult(
+                        rs.getInt("punches_closed"), rs.getInt("absent_marked"),
+                        rs.getInt("leave_marked"), rs.getInt("holiday_marked")),
+                Time.valueOf(autoPunchOut), now, companyId, day,
+                weekend, day, day,
+                companyId, day, day,
+                day, now, now,
+                companyId, date.getYear(), date.getMonthValue(), now, now);
+    }
+
+    // A driver that does not report per-row counts (SUCCESS_NO_INFO) leaves every punch counted as applied
+    private static void collectUnapplied(List<Punch> punches, int[] counts, List<Punch> unapplied) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                unapplied.add(punches.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.BalanceInitializationRun;
+import com.leavemarker.enums.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceInitializationRunRepository extends JpaRepository<BalanceInitializationRun, Long> {
+
+    Optional<BalanceInitializationRun> findByJobIdAndCompanyIdAndDeletedFalse(String jobId, Long companyId);
+
+    Optional<BalanceInitializationRun> findFirstByCompanyIdAndYearAndStatusNotAndDeletedFalseOrderByIdDesc(
+            Long companyId, Integer year, JobStatus status);
+
+    @Modifying
+    @Query("DELETE FROM BalanceInitializationRun r WHERE r.completedAt < :cutoff")
+    int deleteCompletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,8 +2,11 @@ package com.leavemarker.repository;
 
 import com.leavemarker.entity.Company;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +15,19 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
     Optional<Company> findByEmailAndDeletedFalse(String email);
 
     boolean existsByEmailAndDeletedFalse(String email);
+
+    @Query("SELECT c.id FROM Company c WHERE c.active = true AND c.deleted = false ORDER BY c.id")
+    List<Long> findActiveIds();
+
+    @Query("SELECT c.id AS id, c.timezone AS timezone FROM Company c WHERE c.active = true AND c.deleted = false")
+    List<CompanyTimezoneView> findActiveTimezones();
+
+    @Query("SELECT c.timezone FROM Company c WHERE c.id = :id")
+    String findTimezoneById(@Param("id") Long id);
+
+    interface CompanyTimezoneView {
+        Long getId();
+
+        String getTimezone();
+    }
 }
@@ -2,11 +2,13 @@ package com.leavemarker.repository;
 
 import com.leavemarker.entity.Employee;
 import com.leavemarker.enums.EmployeeStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,4 +39,37 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     long countByCompanyId(@Param("companyId") Long companyId);
 
     long countByCompanyIdAndDeletedFalse(Long companyId);
+
+    long countByCompanyIdAndStatusAndDeletedFalse(Long companyId, EmployeeStatus status);
+
+    @Query("SELECT e.id FROM Employee e WHERE e.company.id = :companyId AND e.status = com.leavemarker.enums.EmployeeStatus.ACTIVE " +
+           "AND e.deleted = false AND e.id > :afterId ORDER BY e.id")
+    List<Long> findActiveIdsAfter(@Param("companyId") Long companyId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT e.company.id FROM Employee e WHERE e.id = :employeeId")
+    Optional<Long> findCompanyIdById(@Param("employeeId") Long employeeId);
+
+    @Query("SELECT e.id FROM Employee e WHERE e.company.id = :companyId " +
+           "AND e.status = com.leavemarker.enums.EmployeeStatus.ACTIVE AND e.deleted = false")
+    List<Long> findActiveIdsByCompanyId(@Param("companyId") Long companyId);
+
+    @Query("SELECT e.id AS id, e.tokenVersion AS tokenVersion, e.status AS status, e.deleted AS deleted, e.updatedAt AS updatedAt " +
+           "FROM Employee e WHERE e.tokenVersion > 0 OR e.status <> com.leavemarker.enums.EmployeeStatus.ACTIVE OR e.deleted = true")
+    List<TokenVersionView> findRevocationState();
+
+    @Query("SELECT e.id AS id, e.tokenVersion AS tokenVersion, e.status AS status, e.deleted AS deleted, e.updatedAt AS updatedAt " +
+           "FROM Employee e WHERE e.updatedAt > :since")
+    List<TokenVersionView> findRevocationStateUpdatedSince(@Param("since") LocalDateTime since);
+
+    interface TokenVersionView {
+        Long getId();
+
+        Long getTokenVersion();
+
+        EmployeeStatus getStatus();
+
+        Boolean getDeleted();
+
+        LocalDateTime getUpdatedAt();
+    }
 }
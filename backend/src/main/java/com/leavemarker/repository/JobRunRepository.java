@@ -0,0 +1,9 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.JobRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobRunRepository extends JpaRepository<JobRun, Long> {
+}
@@ -0,0 +1,31 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.LeaveAccrualRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface LeaveAccrualRunRepository extends JpaRepository<LeaveAccrualRun, Long> {
+
+    /**
+     * Records the run and returns 1, or returns 0 when the month was already accrued for the company.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO leave_accrual_runs (company_id, year, month, balances_updated, created_at, updated_at, deleted) " +
+                   "VALUES (:companyId, :year, :month, 0, :now, :now, false) " +
+                   "ON CONFLICT (company_id, year, month) DO NOTHING",
+           nativeQuery = true)
+    int claim(@Param("companyId") Long companyId, @Param("year") Integer year,
+              @Param("month") Integer month, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE LeaveAccrualRun r SET r.balancesUpdated = :balancesUpdated " +
+           "WHERE r.company.id = :companyId AND r.year = :year AND r.month = :month")
+    int recordResult(@Param("companyId") Long companyId, @Param("year") Integer year,
+                     @Param("month") Integer month, @Param("balancesUpdated") Integer balancesUpdated);
+}
@@ -1,38 +1,129 @@
 package com.leavemarker.repository;
 
+import com.leavemarker.dto.leaveapplication.LeaveApplicationResponse;
+import com.leavemarker.dto.report.LeaveUsageReportRow;
 import com.leavemarker.entity.LeaveApplication;
 import com.leavemarker.enums.LeaveStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LeaveApplicationRepository extends JpaRepository<LeaveApplication, Long> {
 
+    // Builds LeaveApplicationResponse in the query itself through its explicit constructor
+    String RESPONSE_PROJECTION = "SELECT new com.leavemarker.dto.leaveapplication.LeaveApplicationResponse(" +
+            "la.id, e.id, e.fullName, e.email, la.leaveType, la.startDate, la.endDate, la.numberOfDays, " +
+            "la.isHalfDay, la.reason, la.attachmentUrl, la.status, m.id, m.fullName, la.managerApprovalDate, " +
+            "h.id, h.fullName, la.hrApprovalDate, la.rejectionReason, la.rejectionDate, la.requiresHrApproval) " +
+            "FROM LeaveApplication la JOIN la.employee e " +
+            "LEFT JOIN la.approvedByManager m LEFT JOIN la.approvedByHr h ";
+
     List<LeaveApplication> findByEmployeeIdAndDeletedFalse(Long employeeId);
 
+    @Query("SELECT la FROM LeaveApplication la JOIN FETCH la.employee WHERE la.id IN :ids AND la.deleted = false")
+    List<LeaveApplication> findAllByIdWithEmployee(@Param("ids") Collection<Long> ids);
+
     List<LeaveApplication> findByEmployeeIdAndStatusAndDeletedFalse(Long employeeId, LeaveStatus status);
 
+    @Query(RESPONSE_PROJECTION +
+           "WHERE la.employee.id = :employeeId AND la.deleted = false ORDER BY la.startDate DESC, la.id DESC")
+    List<LeaveApplicationResponse> findResponsesByEmployeeId(@Param("employeeId") Long employeeId);
+
+    // Keyset pages on (startDate, id): newest first for an employee's history, oldest first for company ranges
+    @Query(RESPONSE_PROJECTION +
+           "WHERE la.employee.id = :employeeId AND la.deleted = false ORDER BY la.startDate DESC, la.id DESC")
+    List<LeaveApplicationResponse> findResponsePageByEmployeeId(@Param("employeeId") Long employeeId, Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION +
+           "WHERE la.employee.id = :employeeId AND la.deleted = false " +
+           "AND (la.startDate < :cursorDate OR (la.startDate = :cursorDate AND la.id < :cursorId)) " +
+           "ORDER BY la.startDate DESC, la.id DESC")
+    List<LeaveApplicationResponse> findResponsePageByEmployeeIdBefore(@Param("employeeId") Long employeeId,
+                                                                     @Param("cursorDate") LocalDate cursorDate,
+                                                                     @Param("cursorId") Long cursorId,
+                                                                     Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION +
+           "WHERE e.company.id = :companyId AND la.startDate >= :startDate AND la.endDate <= :endDate " +
+           "AND la.deleted = false ORDER BY la.startDate, la.id")
+    List<LeaveApplicationResponse> findResponsePageByCompanyIdAndDateRange(@Param("companyId") Long companyId,
+                                                                          @Param("startDate") LocalDate startDate,
+                                                                          @Param("endDate") LocalDate endDate,
+                                                                          Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION +
+           "WHERE e.company.id = :companyId AND la.startDate >= :startDate AND la.endDate <= :endDate " +
+           "AND la.deleted = false " +
+           "AND (la.startDate > :cursorDate OR (la.startDate = :cursorDate AND la.id > :cursorId)) " +
+           "ORDER BY la.startDate, la.id")
+    List<LeaveApplicationResponse> findResponsePageByCompanyIdAndDateRangeAfter(@Param("companyId") Long companyId,
+                                                                               @Param("startDate") LocalDate startDate,
+                                                                               @Param("endDate") LocalDate endDate,
+                                                                               @Param("cursorDate") LocalDate cursorDate,
+                                                                               @Param("cursorId") Long cursorId,
+                                                                               Pageable pageable);
+
+    long countByEmployeeIdAndStatusAndDeletedFalse(Long employeeId, LeaveStatus status);
+
+    @Query("SELECT DISTINCT la.employee.id FROM LeaveApplication la WHERE la.employee.company.id = :companyId " +
+           "AND la.status = com.leavemarker.enums.LeaveStatus.APPROVED AND :date BETWEEN la.startDate AND la.endDate " +
+           "AND la.deleted = false")
+    List<Long> findEmployeeIdsOnApprovedLeave(@Param("companyId") Long companyId, @Param("date") LocalDate date);
+
+    @Query(RESPONSE_PROJECTION +
+           "WHERE e.manager.id = :managerId AND la.status = com.leavemarker.enums.LeaveStatus.PENDING " +
+           "AND la.approvedByManager IS NULL AND la.deleted = false ORDER BY la.startDate, la.id")
+    List<LeaveApplicationResponse> findPendingResponsesForManager(@Param("managerId") Long managerId);
+
+    @Query(RESPONSE_PROJECTION +
+           "WHERE e.company.id = :companyId AND la.status = com.leavemarker.enums.LeaveStatus.PENDING " +
+           "AND la.requiresHrApproval = true AND la.approvedByManager IS NOT NULL AND la.approvedByHr IS NULL " +
+           "AND la.deleted = false ORDER BY la.startDate, la.id")
+    List<LeaveApplicationResponse> findPendingResponsesForHr(@Param("companyId") Long companyId);
+
+    @Query(RESPONSE_PROJECTION +
+           "WHERE e.company.id = :companyId AND la.startDate >= :startDate AND la.endDate <= :endDate " +
+           "AND la.deleted = false ORDER BY la.startDate, la.id")
+    List<LeaveApplicationResponse> findResponsesByCompanyIdAndDateRange(@Param("companyId") Long companyId,
+                                                                       @Param("startDate") LocalDate startDate,
+                                                                       @Param("endDate") LocalDate endDate);
+
     @Query("SELECT la FROM LeaveApplication la WHERE la.employee.manager.id = :managerId AND la.status = :status AND la.deleted = false")
     List<LeaveApplication> findByManagerIdAndStatus(@Param("managerId") Long managerId, @Param("status") LeaveStatus status);
 
     @Query("SELECT la FROM LeaveApplication la WHERE la.employee.company.id = :companyId AND la.status = :status AND la.deleted = false")
     List<LeaveApplication> findByCompanyIdAndStatus(@Param("companyId") Long companyId, @Param("status") LeaveStatus status);
 
-    @Query("SELECT la FROM LeaveApplication la WHERE la.employee.id = :employeeId AND " +
-           "((la.startDate BETWEEN :startDate AND :endDate) OR (la.endDate BETWEEN :startDate AND :endDate)) AND " +
-           "la.status IN ('PENDING', 'APPROVED') AND la.deleted = false")
-    List<LeaveApplication> findOverlappingLeaves(@Param("employeeId") Long employeeId,
-                                                  @Param("startDate") LocalDate startDate,
-                                                  @Param("endDate") LocalDate endDate);
-
-    @Query("SELECT la FROM LeaveApplication la WHERE la.employee.company.id = :companyId AND " +
-           "la.startDate >= :startDate AND la.endDate <= :endDate AND la.deleted = false")
-    List<LeaveApplication> findByCompanyIdAndDateRange(@Param("companyId") Long companyId,
-                                                        @Param("startDate") LocalDate startDate,
-                                                        @Param("endDate") LocalDate endDate);
+    // Closed ranges, matching the leave_applications_no_overlap exclusion constraint so its GiST index answers this
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM leave_applications la WHERE la.employee_id = :employeeId AND " +
+                   "daterange(la.start_date, la.end_date, '[]') && daterange(CAST(:startDate AS date), CAST(:endDate AS date), '[]') AND " +
+                   "la.status IN ('PENDING', 'APPROVED') AND la.deleted = false)",
+           nativeQuery = true)
+    boolean existsOverlappingLeave(@Param("employeeId") Long employeeId,
+                                   @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+
+    /**
+     * Leave usage report rows for applications lying fully inside the range, in one join and read through
+     * a cursor. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.leavemarker.dto.report.LeaveUsageReportRow(e.employeeId, e.fullName, la.leaveType, " +
+           "la.startDate, la.endDate, la.numberOfDays, la.status, la.createdAt) " +
+           "FROM LeaveApplication la JOIN la.employee e WHERE e.company.id = :companyId AND " +
+           "la.startDate >= :startDate AND la.endDate <= :endDate AND la.deleted = false ORDER BY la.startDate, la.id")
+    Stream<LeaveUsageReportRow> streamReportRows(@Param("companyId") Long companyId,
+                                                 @Param("startDate") LocalDate startDate,
+                                                 @Param("endDate") LocalDate endDate);
 }
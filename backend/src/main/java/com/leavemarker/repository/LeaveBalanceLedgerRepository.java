@@ -0,0 +1,65 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.LeaveBalanceLedgerEntry;
+import com.leavemarker.enums.LeaveType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LeaveBalanceLedgerRepository extends JpaRepository<LeaveBalanceLedgerEntry, Long>, LeaveBalanceLedgerRepositoryCustom {
+
+    List<LeaveBalanceLedgerEntry> findByEmployeeIdAndYearAndDeletedFalseOrderByIdAsc(Long employeeId, Integer year);
+
+    @Query("SELECT COALESCE(SUM(l.quotaDelta), 0) AS quota, COALESCE(SUM(l.usedDelta), 0) AS used, " +
+           "COALESCE(SUM(l.pendingDelta), 0) AS pending FROM LeaveBalanceLedgerEntry l " +
+           "WHERE l.employee.id = :employeeId AND l.leaveType = :leaveType AND l.year = :year " +
+           "AND l.id > :afterEntryId AND l.createdAt <= :asOf AND l.deleted = false")
+    LedgerTotals sumAfter(@Param("employeeId") Long employeeId,
+                          @Param("leaveType") LeaveType leaveType,
+                          @Param("year") Integer year,
+                          @Param("afterEntryId") Long afterEntryId,
+                          @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * Seeds an OPENING entry for every balance that has none, carrying whatever part of the current row
+     * the existing entries do not already explain. Balances that predate the ledger but have since been
+     * written to would otherwise only be described by their later movements. The entry is dated at the
+     * balance's creation so as-of reads from then on include it. A balance that already has an OPENING
+     * entry is skipped, by the NOT EXISTS and, against a concurrent insert, by the partial unique index
+     * {@code LedgerOpeningIndexInitializer} installs.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO leave_balance_ledger (employee_id, leave_type, year, movement_type, quota_delta, " +
+                   "  used_delta, pending_delta, created_at, updated_at, deleted) " +
+                   "SELECT b.employee_id, b.leave_type, b.year, 'OPENING', " +
+                   "  b.total_quota - COALESCE(e.quota, 0), b.used - COALESCE(e.used, 0), " +
+                   "  b.pending - COALESCE(e.pending, 0), COALESCE(b.created_at, :now), :now, false " +
+                   "FROM leave_balances b " +
+                   "LEFT JOIN (" +
+                   "  SELECT l.employee_id, l.leave_type, l.year, SUM(l.quota_delta) AS quota, " +
+                   "    SUM(l.used_delta) AS used, SUM(l.pending_delta) AS pending " +
+                   "  FROM leave_balance_ledger l WHERE l.deleted = false " +
+                   "  GROUP BY l.employee_id, l.leave_type, l.year" +
+                   ") e ON e.employee_id = b.employee_id AND e.leave_type = b.leave_type AND e.year = b.year " +
+                   "WHERE b.deleted = false AND NOT EXISTS (" +
+                   "  SELECT 1 FROM leave_balance_ledger o " +
+                   "  WHERE o.employee_id = b.employee_id AND o.leave_type = b.leave_type AND o.year = b.year " +
+                   "  AND o.movement_type = 'OPENING') " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int backfillOpeningEntries(@Param("now") LocalDateTime now);
+
+    interface LedgerTotals {
+        Double getQuota();
+
+        Double getUsed();
+
+        Double getPending();
+    }
+}
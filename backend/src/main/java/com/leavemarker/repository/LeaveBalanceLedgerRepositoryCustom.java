@@ -0,0 +1,22 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.LeaveBalanceLedgerEntry;
+
+import java.util.Collection;
+
+public interface LeaveBalanceLedgerRepositoryCustom {
+
+    /**
+     * Inserts the entries in one JDBC batch. IDENTITY ids keep Hibernate from batching these itself.
+     */
+    void batchInsert(Collection<LeaveBalanceLedgerEntry> entries);
+
+    /**
+     * Returns the highest ledger id such that every entry up to it has committed, or null when the
+     * ledger is empty. Takes a SHARE lock on the ledger, which holds off new entries until the caller's
+     * transaction ends, so call it in a short transaction of its own. The lock is only waited for briefly:
+     * while a transaction is still writing entries it fails with a
+     * {@link org.springframework.dao.PessimisticLockingFailureException}, and the caller should retry later.
+     */
+    Long findMaxCommittedId();
+}
@@ -0,0 +1,57 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.LeaveBalanceLedgerEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class LeaveBalanceLedgerRepositoryCustomImpl implements LeaveBalanceLedgerRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO leave_balance_ledger (employee_id, leave_type, year, movement_type, quota_delta, used_delta, " +
+            "pending_delta, leave_application_id, created_at, updated_at, deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false)";
+
+    // A pending SHARE request queues every new ledger insert behind it, so it only waits a moment
+    private static final long LOCK_TIMEOUT_MS = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(Collection<LeaveBalanceLedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        ArrayList<Object[]> batchArgs = new ArrayList<>(entries.size());
+        for (LeaveBalanceLedgerEntry entry : entries) {
+            batchArgs.add(new Object[]{
+                    entry.getEmployee().getId(),
+                    entry.getLeaveType().name(),
+                    entry.getYear(),
+                    entry.getMovementType().name(),
+                    entry.getQuotaDelta(),
+                    entry.getUsedDelta(),
+                    entry.getPendingDelta(),
+                    entry.getLeaveApplication() != null ? entry.getLeaveApplication().getId() : null,
+                    now,
+                    now
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+
+    @Override
+    public Long findMaxCommittedId() {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + LOCK_TIMEOUT_MS);
+        // Ids come from the INSERT itself, so once no writer holds the table every lower id is visible
+        jdbcTemplate.execute("LOCK TABLE leave_balance_ledger IN SHARE MODE");
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM leave_balance_ledger", Long.class);
+    }
+}
@@ -1,15 +1,27 @@
 package com.leavemarker.repository;
 
+import com.leavemarker.dto.report.LeaveBalanceReportRow;
 import com.leavemarker.entity.LeaveBalance;
 import com.leavemarker.enums.LeaveType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long> {
+public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long>, LeaveBalanceRepositoryCustom {
 
     List<LeaveBalance> findByEmployeeIdAndDeletedFalse(Long employeeId);
 
@@ -17,5 +29,151 @@ public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long
 
     Optional<LeaveBalance> findByEmployeeIdAndLeaveTypeAndYearAndDeletedFalse(Long employeeId, LeaveType leaveType, Integer year);
 
-    List<LeaveBalance> findByEmployeeCompanyIdAndYearAndDeletedFalse(Long companyId, Integer year);
+    /**
+     * Leave balance report rows for the year in one join, read through a cursor. Must be consumed and
+     * closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.leavemarker.dto.report.LeaveBalanceReportRow(e.employeeId, e.fullName, lb.leaveType, " +
+           "lb.year, lb.totalQuota, lb.used, lb.pending, lb.available, lb.carriedForward) " +
+           "FROM LeaveBalance lb JOIN lb.employee e WHERE e.company.id = :companyId " +
+           "AND lb.year = :year AND lb.deleted = false ORDER BY lb.id")
+    Stream<LeaveBalanceReportRow> streamReportRows(@Param("companyId") Long companyId, @Param("year") Integer year);
+
+    @Query("SELECT b.id AS id, b.employee.id AS employeeId, b.leaveType AS leaveType FROM LeaveBalance b " +
+           "WHERE b.employee.id IN :employeeIds AND b.year = :year AND b.deleted = false")
+    List<BalanceKeyView> findKeysByEmployeeIdsAndYear(@Param("employeeIds") Collection<Long> employeeIds,
+                                                      @Param("year") Integer year);
+
+    // Atomic balance movements. Each returns the number of rows changed, 0 when the row is missing
+    // or, for reservePending, when the balance cannot cover the request.
+
+    @Modifying
+    @Query("UPDATE LeaveBalance b SET b.pending = b.pending + :days, b.available = b.available - :days, b.updatedAt = :now " +
+           "WHERE b.employee.id = :employeeId AND b.leaveType = :leaveType AND b.year = :year AND b.deleted = false " +
+           "AND b.available >= :days")
+    int reservePending(@Param("employeeId") Long employeeId, @Param("leaveType") LeaveType leaveType,
+                       @Param("year") Integer year, @Param("days") Double days, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE LeaveBalance b SET b.pending = b.pending - :days, b.used = b.used + :days, b.updatedAt = :now " +
+           "WHERE b.employee.id = :employeeId AND b.leaveType = :leaveType AND b.year = :year AND b.deleted = false")
+    int confirmPending(@Param("employeeId") Long employeeId, @Param("leaveType") LeaveType leaveType,
+                       @Param("year") Integer year, @Param("days") Double days, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE LeaveBalance b SET b.pending = b.pending - :days, b.available = b.available + :days, b.updatedAt = :now " +
+           "WHERE b.employee.id = :employeeId AND b.leaveType = :leaveType AND b.year = :year AND b.deleted = false")
+    int releasePending(@Param("employeeId") Long employeeId, @Param("leaveType") LeaveType leaveType,
+                       @Param("year") Integer year, @Param("days") Double days, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE LeaveBalance b SET b.used = b.used + :days, b.available = b.available - :days, b.updatedAt = :now " +
+           "WHERE b.employee.id = :employeeId AND b.leaveType = :leaveType AND b.year = :year AND b.deleted = false")
+    int addUsed(@Param("employeeId") Long employeeId, @Param("leaveType") LeaveType leaveType,
+                @Param("year") Integer year, @Param("days") Double days, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE LeaveBalance b SET b.used = b.used - :days, b.available = b.available + :days, b.updatedAt = :now " +
+           "WHERE b.employee.id = :employeeId AND b.leaveType = :leaveType AND b.year = :year AND b.deleted = false")
+    int releaseUsed(@Param("employeeId") Long employeeId, @Param("leaveType") LeaveType leaveType,
+                    @Param("year") Integer year, @Param("days") Double days, @Param("now") LocalDateTime now);
+
+    /**
+     * Credits one month of accrual to every active employee's balance in the company and writes the
+     * matching ACCRUAL ledger rows, in a single statement. Employees who joined during the month get
+     * a pro-rated amount rounded to the nearest half day; those who join later get nothing.
+     * Returns the number of balances credited.
+     */
+    @Modifying
+    @Query(value = "WITH accrual AS (" +
+                   "  SELECT b.id AS balance_id, b.employee_id, b.leave_type, " +
+                   "    ROUND(CAST(p.monthly_accrual * CASE WHEN e.date_of_joining > :monthStart " +
+                   "      THEN (CAST(:monthEnd AS date) - e.date_of_joining + 1) / CAST(:daysInMonth AS numeric) " +
+                   "      ELSE 1 END * 2 AS numeric)) / 2 AS amount " +
+                   "  FROM leave_balances b " +
+                   "  JOIN employees e ON e.id = b.employee_id " +
+                   "  JOIN leave_policies p ON p.company_id = e.company_id AND p.leave_type = b.leave_type " +
+                   "  WHERE e.company_id = :companyId AND b.year = :year AND b.deleted = false " +
+                   "    AND p.active = true AND p.deleted = false AND p.monthly_accrual > 0 " +
+                   "    AND e.deleted = false AND e.status = 'ACTIVE' AND e.date_of_joining <= :monthEnd), " +
+                   "credited AS (" +
+                   "  UPDATE leave_balances b SET total_quota = b.total_quota + a.amount, " +
+                   "    available = b.available + a.amount, updated_at = :now " +
+                   "  FROM accrual a WHERE b.id = a.balance_id AND a.amount > 0 " +
+                   "  RETURNING b.employee_id, b.leave_type, a.amount) " +
+                   "INSERT INTO leave_balance_ledger (employee_id, leave_type, year, movement_type, quota_delta, " +
+                   "  used_delta, pending_delta, created_at, updated_at, deleted) " +
+                   "SELECT employee_id, leave_type, :year, 'ACCRUAL', amount, 0, 0, :now, :now, false FROM credited",
+           nativeQuery = true)
+    int accrueMonthly(@Param("companyId") Long companyId,
+                      @Param("year") Integer year,
+                      @Param("monthStart") LocalDate monthStart,
+                      @Param("monthEnd") LocalDate monthEnd,
+                      @Param("daysInMonth") Integer daysInMonth,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Creates the year's balances for the company's active employees in the given id range, one per
+     * active policy, and writes their OPENING ledger rows. Employees who join during the year get the
+     * annual quota pro-rated by days remaining, rounded to the nearest half day. Existing balances are
+     * left untouched. Returns the number of balances created.
+     */
+    @Modifying
+    @Query(value = "WITH created AS (" +
+                   "  INSERT INTO leave_balances (employee_id, leave_type, year, total_quota, used, pending, available, " +
+                   "    carried_forward, encashable_days, created_at, updated_at, deleted) " +
+                   "  SELECT e.id, p.leave_type, :year, q.quota, 0, 0, q.quota, 0, 0, :now, :now, false " +
+                   "  FROM employees e " +
+                   "  JOIN leave_policies p ON p.company_id = e.company_id AND p.active = true AND p.deleted = false " +
+                   "  CROSS JOIN LATERAL (SELECT ROUND(CAST(p.annual_quota * CASE WHEN e.date_of_joining > :yearStart " +
+                   "    THEN (CAST(:yearEnd AS date) - e.date_of_joining + 1) / CAST(:daysInYear AS numeric) " +
+                   "    ELSE 1 END * 2 AS numeric)) / 2 AS quota) q " +
+                   "  WHERE e.company_id = :companyId AND e.deleted = false AND e.status = 'ACTIVE' " +
+                   "    AND e.date_of_joining <= :yearEnd AND e.id > :afterEmployeeId AND e.id <= :toEmployeeId " +
+                   "  ON CONFLICT (employee_id, leave_type, year) DO NOTHING " +
+                   "  RETURNING employee_id, leave_type, total_quota) " +
+                   "INSERT INTO leave_balance_ledger (employee_id, leave_type, year, movement_type, quota_delta, " +
+                   "  used_delta, pending_delta, created_at, updated_at, deleted) " +
+                   "SELECT employee_id, leave_type, :year, 'OPENING', total_quota, 0, 0, :now, :now, false FROM created",
+           nativeQuery = true)
+    int initializeBalances(@Param("companyId") Long companyId,
+                           @Param("year") Integer year,
+                           @Param("yearStart") LocalDate yearStart,
+                           @Param("yearEnd") LocalDate yearEnd,
+                           @Param("daysInYear") Integer daysInYear,
+                           @Param("afterEmployeeId") Long afterEmployeeId,
+                           @Param("toEmployeeId") Long toEmployeeId,
+                           @Param("now") LocalDateTime now);
+
+    boolean existsByEmployeeIdAndLeaveTypeAndYearAndDeletedFalse(Long employeeId, LeaveType leaveType, Integer year);
+
+    long countByEmployeeCompanyIdAndYearAndDeletedFalse(Long companyId, Integer year);
+
+    // Keyset chunk of a company's balances for the year, in id order
+    @Query("SELECT b.id AS id, b.employee.id AS employeeId, b.leaveType AS leaveType, b.available AS available " +
+           "FROM LeaveBalance b WHERE b.employee.company.id = :companyId AND b.year = :year " +
+           "AND b.deleted = false AND b.id > :afterId ORDER BY b.id")
+    List<ClosingBalanceView> findClosingChunk(@Param("companyId") Long companyId,
+                                              @Param("year") Integer year,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    interface ClosingBalanceView {
+        Long getId();
+
+        Long getEmployeeId();
+
+        LeaveType getLeaveType();
+
+        Double getAvailable();
+    }
+
+    interface BalanceKeyView {
+        Long getId();
+
+        Long getEmployeeId();
+
+        LeaveType getLeaveType();
+    }
 }
@@ -0,0 +1,34 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.enums.LeaveType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface LeaveBalanceRepositoryCustom {
+
+    /**
+     * Adds the given amounts to pending and used of each balance row and takes both from available,
+     * all in one JDBC batch. A row is left unchanged if the delta would take its available or pending
+     * days below zero; the ids of those rows are returned.
+     */
+    List<Long> applyDeltas(Collection<BalanceDelta> deltas);
+
+    /**
+     * Stores the days each closing-year balance may be encashed for.
+     */
+    void updateEncashableDays(Map<Long, Double> encashableDaysByBalanceId);
+
+    /**
+     * Creates next-year balances seeded with the annual quota plus the carried days, or adds the
+     * carried days to rows that already exist. One JDBC batch.
+     */
+    void upsertCarriedForward(Collection<CarryForward> rows);
+
+    record CarryForward(Long employeeId, LeaveType leaveType, Integer year, double annualQuota, double days) {
+    }
+
+    record BalanceDelta(Long balanceId, double pendingDelta, double usedDelta) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.leavemarker.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class LeaveBalanceRepositoryCustomImpl implements LeaveBalanceRepositoryCustom {
+
+    // Available moves by the same days as pending and used, like the single-balance movements, and the
+    // guard refuses a delta that would take available or pending below zero, like reservePending
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE leave_balances SET pending = pending + ?, used = used + ?, " +
+            "available = available - ? - ?, updated_at = ? " +
+            "WHERE id = ? AND deleted = false AND available >= ? AND pending + ? >= 0";
+
+    private static final String UPDATE_ENCASHABLE_SQL =
+            "UPDATE leave_balances SET encashable_days = ?, updated_at = ? WHERE id = ?";
+
+    private static final String UPSERT_CARRY_FORWARD_SQL =
+            "INSERT INTO leave_balances (employee_id, leave_type, year, total_quota, used, pending, available, " +
+            "carried_forward, encashable_days, created_at, updated_at, deleted) " +
+            "VALUES (?, ?, ?, ?, 0, 0, ?, ?, 0, ?, ?, false) " +
+            "ON CONFLICT (employee_id, leave_type, year) DO UPDATE SET " +
+            "total_quota = leave_balances.total_quota + EXCLUDED.carried_forward, " +
+            "available = leave_balances.available + EXCLUDED.carried_forward, " +
+            "carried_forward = leave_balances.carried_forward + EXCLUDED.carried_forward, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> applyDeltas(Collection<BalanceDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        ArrayList<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        for (BalanceDelta delta : deltas) {
+            batchArgs.add(new Object[]{
+                    delta.pendingDelta(), delta.usedDelta(),
+                    delta.pendingDelta(), delta.usedDelta(),
+                    now, delta.balanceId(),
+                    delta.pendingDelta() + delta.usedDelta(), delta.pendingDelta()
+            });
+        }
+        int[] counts = jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batchArgs);
+
+        List<Long> refused = new ArrayList<>();
+        int i = 0;
+        for (BalanceDelta delta : deltas) {
+            if (counts[i++] == 0) {
+                refused.add(delta.balanceId());
+            }
+        }
+        return refused;
+    }
+
+    @Override
+    public void updateEncashableDays(Map<Long, Double> encashableDaysByBalanceId) {
+        if (encashableDaysByBalanceId.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        ArrayList<Object[]> batchArgs = new ArrayList<>(encashableDaysByBalanceId.size());
+        encashableDaysByBalanceId.forEach((balanceId, days) -> batchArgs.add(new Object[]{days, now, balanceId}));
+        jdbcTemplate.batchUpdate(UPDATE_ENCASHABLE_SQL, batchArgs);
+    }
+
+    @Override
+    public void upsertCarriedForward(Collection<CarryForward> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        ArrayList<Object[]> batchArgs = new ArrayList<>(rows.size());
+        for (CarryForward row : rows) {
+            double total = row.annualQuota() + row.days();
+            batchArgs.add(new Object[]{
+                    row.employeeId(), row.leaveType().name(), row.year(),
+                    total, total, row.days(),
+                    now, now
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_CARRY_FORWARD_SQL, batchArgs);
+    }
+}
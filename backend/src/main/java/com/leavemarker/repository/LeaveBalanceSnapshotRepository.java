@@ -0,0 +1,55 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.LeaveBalanceSnapshot;
+import com.leavemarker.enums.LeaveType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface LeaveBalanceSnapshotRepository extends JpaRepository<LeaveBalanceSnapshot, Long> {
+
+    Optional<LeaveBalanceSnapshot> findFirstByEmployeeIdAndLeaveTypeAndYearAndTakenAtLessThanEqualOrderByLastEntryIdDesc(
+            Long employeeId, LeaveType leaveType, Integer year, LocalDateTime asOf);
+
+    /**
+     * Highest ledger id folded into any snapshot so far, or 0 before the first run. Every entry up to
+     * it is already in the latest snapshot of its balance, since each run folds all entries up to its
+     * watermark.
+     */
+    @Query(value = "SELECT COALESCE(MAX(last_entry_id), 0) FROM leave_balance_snapshots", nativeQuery = true)
+    long findLastFoldedEntryId();
+
+    /**
+     * Folds the ledger entries in ({@code fromEntryId}, {@code maxEntryId}] into a new snapshot for each
+     * balance they touch, on top of that balance's latest snapshot. Only the new entries and the latest
+     * snapshots of their balances are read, so the cost follows the entries since the last run rather
+     * than the whole history. Balances without new entries are left alone.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO leave_balance_snapshots (employee_id, leave_type, year, last_entry_id, taken_at, " +
+                   "  total_quota, used, pending, created_at, updated_at, deleted) " +
+                   "SELECT m.employee_id, m.leave_type, m.year, m.last_entry_id, :takenAt, " +
+                   "  COALESCE(s.total_quota, 0) + m.quota, COALESCE(s.used, 0) + m.used, " +
+                   "  COALESCE(s.pending, 0) + m.pending, :takenAt, :takenAt, false " +
+                   "FROM (" +
+                   "  SELECT l.employee_id, l.leave_type, l.year, MAX(l.id) AS last_entry_id, " +
+                   "    SUM(l.quota_delta) AS quota, SUM(l.used_delta) AS used, SUM(l.pending_delta) AS pending " +
+                   "  FROM leave_balance_ledger l " +
+                   "  WHERE l.id > :fromEntryId AND l.id <= :maxEntryId AND l.deleted = false " +
+                   "  GROUP BY l.employee_id, l.leave_type, l.year" +
+                   ") m " +
+                   "LEFT JOIN LATERAL (" +
+                   "  SELECT p.total_quota, p.used, p.pending FROM leave_balance_snapshots p " +
+                   "  WHERE p.employee_id = m.employee_id AND p.leave_type = m.leave_type AND p.year = m.year " +
+                   "  ORDER BY p.last_entry_id DESC LIMIT 1" +
+                   ") s ON true",
+           nativeQuery = true)
+    int insertSnapshotsBetween(@Param("fromEntryId") long fromEntryId, @Param("maxEntryId") long maxEntryId,
+                               @Param("takenAt") LocalDateTime takenAt);
+}
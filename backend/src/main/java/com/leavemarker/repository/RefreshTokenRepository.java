@@ -0,0 +1,33 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.employee e JOIN FETCH e.company WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithEmployee(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Revokes the token unless it already is. Returns 0 when another request revoked it first.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true, t.revokedAt = :now WHERE t.tokenHash = :tokenHash AND t.revoked = false")
+    int revokeIfActive(@Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true, t.revokedAt = :now WHERE t.employee.id = :employeeId AND t.revoked = false")
+    int revokeAllForEmployee(@Param("employeeId") Long employeeId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
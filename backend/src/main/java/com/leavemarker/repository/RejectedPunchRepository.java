@@ -0,0 +1,21 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.RejectedPunch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RejectedPunchRepository extends JpaRepository<RejectedPunch, Long> {
+
+    @Query("SELECT r FROM RejectedPunch r JOIN FETCH r.employee e " +
+           "WHERE e.company.id = :companyId AND r.date BETWEEN :startDate AND :endDate AND r.deleted = false " +
+           "ORDER BY r.date, r.id")
+    List<RejectedPunch> findByCompanyIdAndDateRange(@Param("companyId") Long companyId,
+                                                    @Param("startDate") LocalDate startDate,
+                                                    @Param("endDate") LocalDate endDate);
+}
@@ -4,6 +4,8 @@ import com.leavemarker.entity.Company;
 import com.leavemarker.entity.Subscription;
 import com.leavemarker.enums.SubscriptionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -17,4 +19,8 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Long
     List<Subscription> findByCompany(Company company);
     List<Subscription> findByEndDateBeforeAndStatus(LocalDateTime endDate, SubscriptionStatus status);
     Optional<Subscription> findFirstByCompanyOrderByEndDateDesc(Company company);
+
+    @Query("SELECT s FROM Subscription s JOIN FETCH s.plan WHERE s.company.id = :companyId " +
+           "AND s.status = com.leavemarker.enums.SubscriptionStatus.ACTIVE")
+    Optional<Subscription> findActiveWithPlan(@Param("companyId") Long companyId);
 }
@@ -0,0 +1,24 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.YearEndClosingRun;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface YearEndClosingRunRepository extends JpaRepository<YearEndClosingRun, Long> {
+
+    Optional<YearEndClosingRun> findByCompanyIdAndYearAndDeletedFalse(Long companyId, Integer year);
+
+    /**
+     * Locks the run for the rest of the transaction, so only one processor at a time advances its checkpoint.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM YearEndClosingRun r WHERE r.id = :id")
+    Optional<YearEndClosingRun> findByIdForUpdate(@Param("id") Long id);
+}
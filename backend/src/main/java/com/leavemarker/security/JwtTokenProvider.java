@@ -1,7 +1,9 @@
 package com.leavemarker.security;
 
+import com.leavemarker.enums.Role;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
@@ -16,67 +18,102 @@ public class JwtTokenProvider {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
-    @Value("${jwt.expiration}")
+    // Access tokens are short lived; clients renew them through /auth/refresh
+    @Value("${jwt.expiration:900000}")
     private long jwtExpiration;
 
-    @Value("${jwt.refresh-expiration}")
+    @Value("${jwt.refresh-expiration:604800000}")
     private long refreshExpiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheMaxEntries;
+
+    @Value("${jwt.verified-cache.ttl:300000}")
+    private long verifiedCacheTtl;
+
+    // Built once and shared by all request threads
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private VerifiedTokenCache verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedTokens = new VerifiedTokenCache(verifiedCacheMaxEntries, verifiedCacheTtl);
+    }
+
+    public long getJwtExpiration() {
+        return jwtExpiration;
+    }
+
+    public long getRefreshExpiration() {
+        return refreshExpiration;
     }
 
     public String generateToken(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return generateToken((UserPrincipal) authentication.getPrincipal());
+    }
+
+    public String generateToken(UserPrincipal userPrincipal) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
         return Jwts.builder()
                 .subject(Long.toString(userPrincipal.getId()))
                 .claim("email", userPrincipal.getEmail())
+                .claim("name", userPrincipal.getFullName())
                 .claim("role", userPrincipal.getRole().name())
                 .claim("companyId", userPrincipal.getCompanyId())
+                .claim("ver", userPrincipal.getTokenVersion())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String generateTokenFromEmail(String email, Long userId, String role, Long companyId) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpiration);
-
-        return Jwts.builder()
-                .subject(Long.toString(userId))
-                .claim("email", email)
-                .claim("role", role)
-                .claim("companyId", companyId)
-                .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+    public Long getUserIdFromToken(String token) {
+        return Long.parseLong(getVerifiedClaims(token).getSubject());
     }
 
-    public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Rebuilds the principal from the token's own claims. Callers must have validated the token first.
+     */
+    public UserPrincipal getPrincipalFromToken(String token) {
+        Claims claims = getVerifiedClaims(token);
 
-        return Long.parseLong(claims.getSubject());
+        Number tokenVersion = claims.get("ver", Number.class);
+        return UserPrincipal.fromClaims(
+                Long.parseLong(claims.getSubject()),
+                claims.get("email", String.class),
+                claims.get("name", String.class),
+                Role.valueOf(claims.get("role", String.class)),
+                claims.get("companyId", Number.class).longValue(),
+                tokenVersion != null ? tokenVersion.longValue() : 0L
+        );
     }
 
     public boolean validateToken(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
+            getVerifiedClaims(authToken);
             return true;
         } catch (JwtException | IllegalArgumentException ex) {
             return false;
         }
     }
+
+    /**
+     * Parses and verifies the token, or returns the claims from an earlier verification of the same token.
+     * The SPA sends the same cookie on every call, so most requests never reach the HMAC check.
+     */
+    private Claims getVerifiedClaims(String token) {
+        Claims claims = verifiedTokens.get(token);
+        if (claims == null) {
+            claims = jwtParser.parseSignedClaims(token).getPayload();
+            verifiedTokens.put(token, claims);
+        }
+        return claims;
+    }
 }
@@ -0,0 +1,127 @@
+package com.leavemarker.security;
+
+import com.leavemarker.enums.EmployeeStatus;
+import com.leavemarker.repository.EmployeeRepository;
+import com.leavemarker.repository.EmployeeRepository.TokenVersionView;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory table of the minimum token version each employee must present.
+ * Only employees whose tokens were ever revoked are stored; everyone else implicitly sits at version 0.
+ * Deactivated or deleted employees are pinned to {@link Long#MAX_VALUE} so none of their tokens pass.
+ * The table is loaded once and then refreshed incrementally from {@code employees.updated_at}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionRegistry {
+
+    private static final long REVOKED = Long.MAX_VALUE;
+
+    // Rows written on another node just before our last poll may carry a slightly older timestamp
+    private static final long CLOCK_SKEW_SECONDS = 5;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final ConcurrentHashMap<Long, Long> minimumVersions = new ConcurrentHashMap<>();
+
+    @Value("${jwt.claims-only-auth:false}")
+    private boolean claimsOnlyAuth;
+
+    @Value("${jwt.token-version-refresh-interval:15000}")
+    private long refreshIntervalMs;
+
+    private volatile LocalDateTime lastRefresh;
+    private ScheduledExecutorService refresher;
+
+    @PostConstruct
+    void start() {
+        if (!claimsOnlyAuth) {
+            return;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<TokenVersionView> rows = employeeRepository.findRevocationState();
+        rows.forEach(this::apply);
+        lastRefresh = startedAt;
+        log.info("Loaded token revocation state for {} employees", rows.size());
+
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-version-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether a token issued with the given version is still acceptable for the employee.
+     */
+    public boolean isCurrent(Long employeeId, long tokenVersion) {
+        return tokenVersion >= minimumVersions.getOrDefault(employeeId, 0L);
+    }
+
+    /**
+     * Applies a local change without waiting for the next poll. Inside a transaction this happens after
+     * commit, so a rollback cannot leave the registry ahead of the database.
+     */
+    public void update(Long employeeId, long tokenVersion, EmployeeStatus status, boolean deleted) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    store(employeeId, tokenVersion, status, deleted);
+                }
+            });
+        } else {
+            store(employeeId, tokenVersion, status, deleted);
+        }
+    }
+
+    void refresh() {
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            List<TokenVersionView> rows = employeeRepository
+                    .findRevocationStateUpdatedSince(lastRefresh.minusSeconds(CLOCK_SKEW_SECONDS));
+            rows.forEach(this::apply);
+            lastRefresh = startedAt;
+        } catch (Exception ex) {
+            log.warn("Could not refresh token revocation state: {}", ex.getMessage());
+        }
+    }
+
+    private void apply(TokenVersionView row) {
+        store(row.getId(), row.getTokenVersion(), row.getStatus(), Boolean.TRUE.equals(row.getDeleted()));
+    }
+
+    private void store(Long employeeId, long tokenVersion, EmployeeStatus status, boolean deleted) {
+        if (deleted || status != EmployeeStatus.ACTIVE) {
+            minimumVersions.put(employeeId, REVOKED);
+        } else if (tokenVersion > 0) {
+            minimumVersions.put(employeeId, tokenVersion);
+        } else {
+            minimumVersions.remove(employeeId);
+        }
+    }
+}
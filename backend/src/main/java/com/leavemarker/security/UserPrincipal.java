@@ -21,13 +21,10 @@ public class UserPrincipal implements UserDetails {
     private String password;
     private Role role;
     private Long companyId;
+    private Long tokenVersion;
     private Collection<? extends GrantedAuthority> authorities;
 
     public static UserPrincipal create(Employee employee) {
-        Collection<GrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority("ROLE_" + employee.getRole().name())
-        );
-
         return new UserPrincipal(
                 employee.getId(),
                 employee.getEmail(),
@@ -35,10 +32,24 @@ public class UserPrincipal implements UserDetails {
                 employee.getPassword(),
                 employee.getRole(),
                 employee.getCompany().getId(),
-                authorities
+                employee.getTokenVersion(),
+                authoritiesFor(employee.getRole())
         );
     }
 
+    /**
+     * Builds a principal from already verified token claims, without touching the database.
+     * The password is never part of a token, so it stays null.
+     */
+    public static UserPrincipal fromClaims(Long id, String email, String fullName, Role role,
+                                           Long companyId, Long tokenVersion) {
+        return new UserPrincipal(id, email, fullName, null, role, companyId, tokenVersion, authoritiesFor(role));
+    }
+
+    private static Collection<GrantedAuthority> authoritiesFor(Role role) {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
     @Override
     public String getUsername() {
         return email;
@@ -0,0 +1,431 @@
+package com.leavemarker.service;
+
+import com.leavemarker.config.BoundedExecutors;
+import com.leavemarker.dto.attendance.AttendanceBoardDelta;
+import com.leavemarker.dto.attendance.AttendanceBoardResponse;
+import com.leavemarker.enums.AttendanceStatus;
+import com.leavemarker.enums.PresenceStatus;
+import com.leavemarker.enums.WorkType;
+import com.leavemarker.repository.AttendanceRepository;
+import com.leavemarker.repository.AttendanceRepository.DayStatusView;
+import com.leavemarker.repository.CompanyRepository;
+import com.leavemarker.repository.EmployeeRepository;
+import com.leavemarker.repository.LeaveApplicationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Live "today" board per company: how many employees are in, out, on leave, absent or not in yet.
+ * Boards are seeded from today's attendance rows and approved leaves, then updated in memory as
+ * punches, corrections, markings and leave decisions commit. Every change is pushed to subscribers
+ * as a Server-Sent Event. Changes made on other nodes are picked up by a periodic resync of boards
+ * that have subscribers, which also rolls boards over at midnight in the company's timezone.
+ * Each subscriber has its own bounded queue of events, drained by a small shared pool, so a slow
+ * client only delays itself; one that falls a full queue behind is disconnected and gets a fresh
+ * snapshot when its browser reconnects.
+ * Seeds and resyncs read only the database. With {@code attendance.ingestion.write-behind} enabled, a punch
+ * still waiting in the journal when a board is seeded drops off it until the resync after its flush.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceBoardService implements ApplicationRunner {
+
+    private static final long HEARTBEAT_SECONDS = 25;
+    private static final int PUSH_THREADS = 4;
+    private static final int SUBSCRIBER_QUEUE_SIZE = 64;
+
+    private final CompanyRepository companyRepository;
+    private final EmployeeRepository employeeRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final LeaveApplicationRepository leaveApplicationRepository;
+    private final CompanyTimeService companyTimeService;
+
+    @Value("${attendance.board.resync-interval-ms:60000}")
+    private long resyncIntervalMs;
+
+    @Value("${attendance.board.sse-timeout-ms:1800000}")
+    private long sseTimeoutMs;
+
+    private final ConcurrentHashMap<Long, Board> boards = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, CopyOnWriteArrayList<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    // Drains subscriber queues, so a slow client never holds up the request that changed the board.
+    // A subscriber is drained by at most one thread at a time, so one queued task per subscriber at most.
+    private final ThreadPoolExecutor pushExecutor =
+            BoundedExecutors.newFixedPool("attendance-board-push", PUSH_THREADS, 10_000);
+
+    private ScheduledExecutorService maintenance;
+
+    /**
+     * Seeds a board for every active company and starts the heartbeat and resync tasks.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> companyIds = companyRepository.findActiveIds();
+        for (Long companyId : companyIds) {
+            try {
+                boards.put(companyId, seed(companyId));
+            } catch (Exception ex) {
+                log.warn("Could not seed attendance board for company {}: {}", companyId, ex.getMessage());
+            }
+        }
+        log.info("Seeded attendance boards for {} companies", boards.size());
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "attendance-board-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        maintenance.scheduleWithFixedDelay(this::resync, resyncIntervalMs, resyncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        pushExecutor.shutdownNow();
+        subscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    public AttendanceBoardResponse getBoard(Long companyId) {
+        return currentBoard(companyId).snapshot();
+    }
+
+    /**
+     * Opens an event stream that starts with a {@code snapshot} event and then carries a
+     * {@code delta} event per change.
+     */
+    public SseEmitter subscribe(Long companyId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        CopyOnWriteArrayList<Subscriber> list = subscribers.compute(companyId, (id, existing) -> {
+            CopyOnWriteArrayList<Subscriber> current = existing != null ? existing : new CopyOnWriteArrayList<>();
+            subscriber.list = current;
+            current.add(subscriber);
+            return current;
+        });
+        emitter.onCompletion(() -> list.remove(subscriber));
+        emitter.onTimeout(() -> list.remove(subscriber));
+        emitter.onError(ex -> list.remove(subscriber));
+
+        // Queued behind any delta published since joining; the snapshot already includes those
+        subscriber.offer(SseEmitter.event().name("snapshot").data(getBoard(companyId)));
+        return emitter;
+    }
+
+    /**
+     * Reflects a committed change to an attendance row. Rows for other days are ignored.
+     */
+    public void attendanceChanged(Long companyId, Long employeeId, LocalDate date, AttendanceStatus status,
+                                  boolean punchedOut, WorkType workType) {
+        afterCommit(() -> {
+            Board board = boards.get(companyId);
+            if (board == null || !board.date.equals(date)) {
+                return;
+            }
+            publish(companyId, board.applyAttendance(employeeId, toPresence(status, punchedOut),
+                    workType == WorkType.WFH));
+        });
+    }
+
+    /**
+     * Reflects an approved leave covering today, or the cancellation of one.
+     */
+    public void leaveChanged(Long companyId, Long employeeId, LocalDate startDate, LocalDate endDate, boolean onLeave) {
+        afterCommit(() -> {
+            Board board = boards.get(companyId);
+            if (board == null || board.date.isBefore(startDate) || board.date.isAfter(endDate)) {
+                return;
+            }
+            publish(companyId, board.applyLeave(employeeId, onLeave));
+        });
+    }
+
+    private Board currentBoard(Long companyId) {
+        LocalDate today = companyTimeService.today(companyId);
+        Board board = boards.get(companyId);
+        if (board != null && board.date.equals(today)) {
+            return board;
+        }
+        // Seeded under the map's lock for this key, so a board that already took deltas is never replaced
+        return boards.compute(companyId, (id, current) ->
+                current == null || !current.date.equals(today) ? seed(id) : current);
+    }
+
+    private Board seed(Long companyId) {
+        LocalDate today = companyTimeService.today(companyId);
+        Board board = new Board(today, employeeRepository.findActiveIdsByCompanyId(companyId));
+        for (Long employeeId : leaveApplicationRepository.findEmployeeIdsOnApprovedLeave(companyId, today)) {
+            board.applyLeave(employeeId, true);
+        }
+        for (DayStatusView row : attendanceRepository.findDayStatuses(companyId, today)) {
+            board.applyAttendance(row.getEmployeeId(), toPresence(row.getStatus(), row.getPunchOutTime() != null),
+                    row.getWorkType() == WorkType.WFH);
+        }
+        return board;
+    }
+
+    private void resync() {
+        for (Long companyId : subscribers.keySet()) {
+            if (subscribers.computeIfPresent(companyId, (id, list) -> list.isEmpty() ? null : list) == null) {
+                continue;
+            }
+            try {
+                Board fresh = seed(companyId);
+                Board previous = boards.put(companyId, fresh);
+                AttendanceBoardResponse snapshot = fresh.snapshot();
+                if (previous == null || !sameCounts(previous.snapshot(), snapshot)) {
+                    send(companyId, "snapshot", snapshot);
+                }
+            } catch (Exception ex) {
+                log.warn("Could not resync attendance board for company {}: {}", companyId, ex.getMessage());
+            }
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(list -> {
+            for (Subscriber subscriber : list) {
+                subscriber.offer(SseEmitter.event().comment("keep-alive"));
+            }
+        });
+    }
+
+    private void publish(Long companyId, AttendanceBoardDelta delta) {
+        if (delta != null) {
+            send(companyId, "delta", delta);
+        }
+    }
+
+    private void send(Long companyId, String eventName, Object payload) {
+        List<Subscriber> list = subscribers.get(companyId);
+        if (list == null) {
+            return;
+        }
+        // An event builder is consumed by the send, so every subscriber gets its own
+        for (Subscriber subscriber : list) {
+            subscriber.offer(SseEmitter.event().name(eventName).data(payload));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static PresenceStatus toPresence(AttendanceStatus status, boolean punchedOut) {
+        return switch (status) {
+            case PRESENT -> punchedOut ? PresenceStatus.OUT : PresenceStatus.IN;
+            case HALF_DAY -> PresenceStatus.HALF_DAY;
+            case ABSENT -> PresenceStatus.ABSENT;
+            case LEAVE -> PresenceStatus.ON_LEAVE;
+            case HOLIDAY -> PresenceStatus.NOT_IN;
+        };
+    }
+
+    private static boolean sameCounts(AttendanceBoardResponse a, AttendanceBoardResponse b) {
+        return a.getDate().equals(b.getDate()) && a.getActiveEmployees().equals(b.getActiveEmployees())
+                && a.getIn().equals(b.getIn()) && a.getOut().equals(b.getOut())
+                && a.getHalfDay().equals(b.getHalfDay()) && a.getOnLeave().equals(b.getOnLeave())
+                && a.getAbsent().equals(b.getAbsent()) && a.getWfh().equals(b.getWfh());
+    }
+
+    /**
+     * One open event stream and the events waiting to be written to it.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> pending =
+                new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE_SIZE);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile List<Subscriber> list;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (!pending.offer(event)) {
+                // Too far behind to catch up on deltas; the browser reconnects and starts from a snapshot
+                log.debug("Disconnecting slow attendance board subscriber");
+                close(null);
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                pushExecutor.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                // Left queued; the next event or heartbeat tries again
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = pending.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (Exception ex) {
+                close(ex);
+            } finally {
+                draining.set(false);
+            }
+            // An event offered after the last poll but before the flag was cleared
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void close(Exception error) {
+            pending.clear();
+            if (list != null) {
+                list.remove(this);
+            }
+            try {
+                if (error != null) {
+                    emitter.completeWithError(error);
+                } else {
+                    emitter.complete();
+                }
+            } catch (Exception ignored) {
+                // Already completed
+            }
+        }
+    }
+
+    /**
+     * One company's day. Employees without an entry are {@link PresenceStatus#NOT_IN}.
+     * An attendance row takes precedence over an approved leave for the same day.
+     */
+    private static final class Board {
+
+        private final LocalDate date;
+        private final Set<Long> activeEmployees;
+        private final Map<Long, PresenceStatus> statuses = new HashMap<>();
+        private final Set<Long> attendanceRecorded = new HashSet<>();
+        private final Set<Long> wfh = new HashSet<>();
+        private final EnumMap<PresenceStatus, Integer> counts = new EnumMap<>(PresenceStatus.class);
+        private LocalDateTime updatedAt = LocalDateTime.now();
+
+        private Board(LocalDate date, List<Long> activeEmployeeIds) {
+            this.date = date;
+            this.activeEmployees = new HashSet<>(activeEmployeeIds);
+        }
+
+        synchronized AttendanceBoardDelta applyAttendance(Long employeeId, PresenceStatus status, boolean workingFromHome) {
+            attendanceRecorded.add(employeeId);
+            if (workingFromHome && (status == PresenceStatus.IN || status == PresenceStatus.OUT
+                    || status == PresenceStatus.HALF_DAY)) {
+                wfh.add(employeeId);
+            } else {
+                wfh.remove(employeeId);
+            }
+            return set(employeeId, status);
+        }
+
+        synchronized AttendanceBoardDelta applyLeave(Long employeeId, boolean onLeave) {
+            if (attendanceRecorded.contains(employeeId)) {
+                return null;
+            }
+            PresenceStatus current = statuses.getOrDefault(employeeId, PresenceStatus.NOT_IN);
+            if (onLeave) {
+                return set(employeeId, PresenceStatus.ON_LEAVE);
+            }
+            return current == PresenceStatus.ON_LEAVE ? set(employeeId, PresenceStatus.NOT_IN) : null;
+        }
+
+        synchronized AttendanceBoardResponse snapshot() {
+            int active = activeEmployees.size();
+            int accounted = 0;
+            for (PresenceStatus status : PresenceStatus.values()) {
+                if (status != PresenceStatus.NOT_IN) {
+                    accounted += count(status);
+                }
+            }
+            return AttendanceBoardResponse.builder()
+                    .date(date)
+                    .activeEmployees(active)
+                    .in(count(PresenceStatus.IN))
+                    .out(count(PresenceStatus.OUT))
+                    .halfDay(count(PresenceStatus.HALF_DAY))
+                    .onLeave(count(PresenceStatus.ON_LEAVE))
+                    .absent(count(PresenceStatus.ABSENT))
+                    .notIn(Math.max(0, active - accounted))
+                    .wfh(wfh.size())
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+
+        private AttendanceBoardDelta set(Long employeeId, PresenceStatus status) {
+            activeEmployees.add(employeeId);
+            PresenceStatus previous = status == PresenceStatus.NOT_IN
+                    ? statuses.remove(employeeId)
+                    : statuses.put(employeeId, status);
+            if (previous == null) {
+                previous = PresenceStatus.NOT_IN;
+            }
+            if (previous == status) {
+                return null;
+            }
+
+            counts.merge(previous, -1, Integer::sum);
+            counts.merge(status, 1, Integer::sum);
+            updatedAt = LocalDateTime.now();
+            return AttendanceBoardDelta.builder()
+                    .employeeId(employeeId)
+                    .previousStatus(previous)
+                    .status(status)
+                    .board(snapshot())
+                    .build();
+        }
+
+        private int count(PresenceStatus status) {
+            return counts.getOrDefault(status, 0);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.leavemarker.service;
+
+import com.leavemarker.repository.AttendanceDayClosureRepository;
+import com.leavemarker.repository.AttendanceRepository;
+import com.leavemarker.repository.AttendanceRepositoryCustom.DayCloseResult;
+import com.leavemarker.repository.CompanyRepository;
+import com.leavemarker.repository.CompanyRepository.CompanyTimezoneView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Closes each company's attendance day once it has ended in the company's own timezone: open punches
+ * are punched out and employees without a row are marked LEAVE, HOLIDAY or ABSENT.
+ * Each company and date is closed at most once, tracked in attendance_day_closures.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceDayCloseService {
+
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceDayClosureRepository closureRepository;
+    private final CompanyRepository companyRepository;
+    private final ReportCacheService reportCacheService;
+    private final CompanyTimeService companyTimeService;
+    private final WorkingDayCalendarService workingDayCalendarService;
+
+    @Value("${attendance.day-close.punch-out-time:18:00}")
+    private String autoPunchOutTime;
+
+    // Time after local midnight before the previous day is closed, so late punch-outs still land
+    @Value("${attendance.day-close.grace-minutes:30}")
+    private long graceMinutes;
+
+    /**
+     * Returns the date due for closing per company, leaving out companies already closed for it.
+     * Companies are bucketed by timezone so each zone's local date is computed once.
+     */
+    @Transactional(readOnly = true)
+    public Map<LocalDate, List<Long>> findDueCompanies() {
+        Map<ZoneId, List<Long>> byZone = new HashMap<>();
+        for (CompanyTimezoneView company : companyRepository.findActiveTimezones()) {
+            byZone.computeIfAbsent(companyTimeService.resolve(company.getId(), company.getTimezone()), zone -> new ArrayList<>()).add(company.getId());
+        }
+
+        Map<LocalDate, List<Long>> due = new HashMap<>();
+        byZone.forEach((zone, companyIds) -> {
+            LocalDate date = ZonedDateTime.now(zone).minusMinutes(graceMinutes).toLocalDate().minusDays(1);
+            due.computeIfAbsent(date, d -> new ArrayList<>()).addAll(companyIds);
+        });
+
+        due.forEach((date, companyIds) -> {
+            Set<Long> closed = new HashSet<>(closureRepository.findClosedCompanyIds(companyIds, date));
+            companyIds.removeIf(closed::contains);
+        });
+        due.values().removeIf(List::isEmpty);
+        return due;
+    }
+
+    /**
+     * Closes the company's day and returns the number of rows written, or 0 when it was already closed.
+     */
+    @Transactional
+    public int closeDay(Long companyId, LocalDate date) {
+        if (closureRepository.claim(companyId, date, LocalDateTime.now()) == 0) {
+            return 0;
+        }
+
+        DayCloseResult result = attendanceRepository.closeDay(companyId, date,
+                LocalTime.parse(autoPunchOutTime), workingDayCalendarService.isWeekend(date));
+        closureRepository.recordResult(companyId, date, result.punchesClosed(), result.absentMarked(),
+                result.leaveMarked(), result.holidayMarked());
+        if (result.total() > 0) {
+            reportCacheService.dataChanged(companyId);
+        }
+
+        log.info("Closed attendance for company {} on {}: {} punches closed, {} absent, {} on leave, {} holiday",
+                companyId, date, result.punchesClosed(), result.absentMarked(), result.leaveMarked(),
+                result.holidayMarked());
+        return result.total();
+    }
+}
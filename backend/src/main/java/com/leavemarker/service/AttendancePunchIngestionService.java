@@ -0,0 +1,369 @@
+package com.leavemarker.service;
+
+import com.leavemarker.dto.attendance.AttendancePunchRequest;
+import com.leavemarker.dto.attendance.AttendanceResponse;
+import com.leavemarker.dto.attendance.RejectedPunchResponse;
+import com.leavemarker.entity.Attendance;
+import com.leavemarker.entity.RejectedPunch;
+import com.leavemarker.enums.AttendanceStatus;
+import com.leavemarker.enums.PunchRejectionReason;
+import com.leavemarker.enums.WorkType;
+import com.leavemarker.exception.BadRequestException;
+import com.leavemarker.exception.ServiceUnavailableException;
+import com.leavemarker.repository.AttendanceRepository;
+import com.leavemarker.repository.AttendanceRepositoryCustom.Punch;
+import com.leavemarker.repository.EmployeeRepository;
+import com.leavemarker.repository.RejectedPunchRepository;
+import com.leavemarker.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind punch ingestion, enabled with {@code attendance.ingestion.write-behind}.
+ * A punch is validated against the employee's state for the day, appended to a local {@link PunchJournal}
+ * and acknowledged without touching the database. A background writer flushes the journal in batches,
+ * and whatever was not flushed before a shutdown or crash is replayed on the next start.
+ * Day state is kept per node; the unique (employee_id, date) constraint settles punches for the same
+ * employee that reach different nodes. Reads of today's attendance lag by up to one flush interval.
+ * Acceptance is therefore not a guarantee: a punch that loses to one recorded first, or that the database
+ * refuses, is kept in {@code rejected_punches} and counted in {@code attendance.punches.rejected}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendancePunchIngestionService {
+
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    private final AttendanceRepository attendanceRepository;
+    private final SubscriptionFeatureService subscriptionFeatureService;
+    private final AttendanceBoardService attendanceBoardService;
+    private final TransactionTemplate transactionTemplate;
+    private final ReportCacheService reportCacheService;
+    private final RejectedPunchRepository rejectedPunchRepository;
+    private final EmployeeRepository employeeRepository;
+    private final MeterRegistry meterRegistry;
+    private final CompanyTimeService companyTimeService;
+
+    @Value("${attendance.ingestion.write-behind:false}")
+    private boolean enabled;
+
+    @Value("${attendance.ingestion.journal-path:data/attendance-punches.journal}")
+    private String journalPath;
+
+    @Value("${attendance.ingestion.journal-capacity:1000000}")
+    private int journalCapacity;
+
+    @Value("${attendance.ingestion.sync-on-append:false}")
+    private boolean syncOnAppend;
+
+    @Value("${attendance.ingestion.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${attendance.ingestion.batch-size:1000}")
+    private int batchSize;
+
+    // Today's punch state per employee, covering punches that are still only in the journal
+    private final ConcurrentHashMap<Long, DayState> dayStates = new ConcurrentHashMap<>();
+
+    // Companies with journaled punches whose cached reports must be invalidated once the punches are written
+    private final Set<Long> companiesWithPunches = ConcurrentHashMap.newKeySet();
+
+    private PunchJournal journal;
+    private ScheduledExecutorService writer;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            journal = PunchJournal.open(Path.of(journalPath), journalCapacity, syncOnAppend);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open punch journal " + journalPath, ex);
+        }
+
+        List<PunchJournal.Entry> replayed = journal.pending();
+        replayed.forEach(entry -> dayStates.compute(entry.punch().employeeId(),
+                (employeeId, state) -> DayState.apply(state, entry.punch())));
+        if (!replayed.isEmpty()) {
+            log.info("Replaying {} journaled punches", replayed.size());
+        }
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "punch-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, 0, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writer == null) {
+            return;
+        }
+
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+            flush();
+            journal.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            log.warn("Could not close punch journal: {}", ex.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Validates and journals the punch. The returned record has no id because the row is written later.
+     */
+    public AttendanceResponse accept(AttendancePunchRequest request, UserPrincipal currentUser) {
+        subscriptionFeatureService.validateAttendanceAccess(currentUser.getCompanyId());
+
+        LocalDate today = companyTimeService.today(currentUser.getCompanyId());
+        if (!request.getDate().equals(today)) {
+            throw new BadRequestException("Can only punch in/out for today's date");
+        }
+
+        Long employeeId = currentUser.getId();
+        DayState known = dayStates.get(employeeId);
+        DayState stored = known != null && known.date().equals(today) ? null : loadDayState(employeeId, today);
+
+        Punch punch = new Punch(employeeId, today, request.getPunchTime(), request.getIsPunchIn(), request.getWorkType());
+        DayState state = dayStates.compute(employeeId, (id, current) -> {
+            DayState base = current != null && current.date().equals(today) ? current : stored;
+            validate(base, punch);
+            if (!journal.append(punch)) {
+                throw new ServiceUnavailableException("Attendance is being recorded slowly, please retry shortly",
+                        RETRY_AFTER_SECONDS);
+            }
+            return DayState.apply(base, punch);
+        });
+        companiesWithPunches.add(currentUser.getCompanyId());
+        attendanceBoardService.attendanceChanged(currentUser.getCompanyId(), employeeId, today,
+                AttendanceStatus.PRESENT, state.punchOutTime() != null, state.workType());
+
+        return AttendanceResponse.builder()
+                .employeeId(employeeId)
+                .employeeName(currentUser.getFullName())
+                .employeeEmail(currentUser.getEmail())
+                .date(today)
+                .punchInTime(state.punchInTime())
+                .punchOutTime(state.punchOutTime())
+                .workType(state.workType())
+                .status(AttendanceStatus.PRESENT)
+                .correctionRequested(false)
+                .correctionApproved(false)
+                .build();
+    }
+
+    /**
+     * Rejected punches for the company between the two dates, oldest first.
+     */
+    public List<RejectedPunchResponse> getRejectedPunches(LocalDate startDate, LocalDate endDate,
+                                                          UserPrincipal currentUser) {
+        if (endDate.isBefore(startDate)) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        return rejectedPunchRepository.findByCompanyIdAndDateRange(currentUser.getCompanyId(), startDate, endDate)
+                .stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Writes journaled punches to the database until the journal is drained or the database fails.
+     */
+    void flush() {
+        // Taken before reading the journal, so every punch of these companies is written by the loop below
+        Set<Long> changed = new HashSet<>(companiesWithPunches);
+        companiesWithPunches.removeAll(changed);
+        try {
+            List<PunchJournal.Entry> batch = journal.peek(batchSize);
+            while (!batch.isEmpty()) {
+                write(batch);
+                journal.markFlushed(batch.get(batch.size() - 1).sequence());
+                batch = journal.peek(batchSize);
+            }
+            changed.forEach(reportCacheService::dataChanged);
+        } catch (Exception ex) {
+            companiesWithPunches.addAll(changed);
+            log.warn("Could not flush journaled punches, will retry: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Punches that were written by their own replay before a crash are recognised and skipped; every other
+     * punch that cannot be applied is recorded as rejected in the same pass, before the batch is marked flushed.
+     * A failure that retrying may cure, such as the database being unreachable, propagates so the batch is
+     * retried as a whole; any other failure is pinned to the rows that cause it, so one bad punch can never
+     * hold up the journal.
+     */
+    private void write(List<PunchJournal.Entry> batch) {
+        List<Punch> punches = batch.stream().map(PunchJournal.Entry::punch).toList();
+        List<RejectedPunch> rejected = new ArrayList<>();
+        List<Punch> unapplied;
+        try {
+            unapplied = transactionTemplate.execute(status -> attendanceRepository.applyPunches(punches));
+        } catch (RuntimeException ex) {
+            if (isRetryable(ex)) {
+                throw ex;
+            }
+            // One bad row fails the whole batch; write the rest one by one and set aside the rows that cannot be stored
+            unapplied = new ArrayList<>();
+            for (Punch punch : punches) {
+                try {
+                    unapplied.addAll(transactionTemplate.execute(
+                            status -> attendanceRepository.applyPunches(List.of(punch))));
+                } catch (RuntimeException rowEx) {
+                    if (isRetryable(rowEx)) {
+                        throw rowEx;
+                    }
+                    rejected.add(rejection(punch, PunchRejectionReason.INVALID,
+                            NestedExceptionUtils.getMostSpecificCause(rowEx).getMessage()));
+                }
+            }
+        }
+
+        for (Punch punch : unapplied) {
+            if (alreadyRecorded(punch)) {
+                log.debug("Punch for employee {} on {} was already recorded", punch.employeeId(), punch.date());
+            } else {
+                rejected.add(rejection(punch, PunchRejectionReason.CONFLICT, punch.punchIn()
+                        ? "Attendance for the day was already recorded"
+                        : "No open punch-in for the day"));
+            }
+        }
+
+        if (!rejected.isEmpty()) {
+            rejectedPunchRepository.saveAll(rejected);
+        }
+    }
+
+    // Failures of the database or connection rather than of the data; DataAccessResourceFailureException
+    // counts as non-transient in Spring's hierarchy but usually just means the database is down
+    private static boolean isRetryable(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    // A replayed punch finds its own earlier write
+    private boolean alreadyRecorded(Punch punch) {
+        LocalTime time = punch.time().withNano(0);
+        return attendanceRepository.findByEmployeeIdAndDateAndDeletedFalse(punch.employeeId(), punch.date())
+                .map(attendance -> time.equals(withoutNanos(
+                        punch.punchIn() ? attendance.getPunchInTime() : attendance.getPunchOutTime())))
+                .orElse(false);
+    }
+
+    private RejectedPunch rejection(Punch punch, PunchRejectionReason reason, String message) {
+        log.warn("Rejected punch-{} for employee {} on {} at {}: {}", punch.punchIn() ? "in" : "out",
+                punch.employeeId(), punch.date(), punch.time(), message);
+        meterRegistry.counter("attendance.punches.rejected", "reason", reason.name()).increment();
+        return RejectedPunch.builder()
+                .employee(employeeRepository.getReferenceById(punch.employeeId()))
+                .date(punch.date())
+                .punchTime(punch.time())
+                .punchIn(punch.punchIn())
+                .workType(punch.workType())
+                .reason(reason)
+                .message(message != null && message.length() > 1000 ? message.substring(0, 1000) : message)
+                .build();
+    }
+
+    private RejectedPunchResponse mapToResponse(RejectedPunch rejected) {
+        return RejectedPunchResponse.builder()
+                .id(rejected.getId())
+                .employeeId(rejected.getEmployee().getId())
+                .employeeName(rejected.getEmployee().getFullName())
+                .date(rejected.getDate())
+                .punchTime(rejected.getPunchTime())
+                .punchIn(rejected.getPunchIn())
+                .workType(rejected.getWorkType())
+                .reason(rejected.getReason())
+                .message(rejected.getMessage())
+                .rejectedAt(rejected.getCreatedAt())
+                .build();
+    }
+
+    private static LocalTime withoutNanos(LocalTime time) {
+        return time != null ? time.withNano(0) : null;
+    }
+
+    private DayState loadDayState(Long employeeId, LocalDate date) {
+        return attendanceRepository.findByEmployeeIdAndDateAndDeletedFalse(employeeId, date)
+                .map(DayState::of)
+                .orElse(null);
+    }
+
+    private static void validate(DayState state, Punch punch) {
+        if (punch.punchIn()) {
+            if (state != null) {
+                throw new BadRequestException("Already punched in for today");
+            }
+            return;
+        }
+
+        if (state == null) {
+            throw new BadRequestException("No punch-in record found for today");
+        }
+        if (state.punchOutTime() != null) {
+            throw new BadRequestException("Already punched out for today");
+        }
+        if (state.punchInTime() != null && punch.time().isBefore(state.punchInTime())) {
+            throw new BadRequestException("Punch-out time cannot be before punch-in time");
+        }
+    }
+
+    private record DayState(LocalDate date, LocalTime punchInTime, LocalTime punchOutTime, WorkType workType) {
+
+        static DayState of(Attendance attendance) {
+            return new DayState(attendance.getDate(), attendance.getPunchInTime(), attendance.getPunchOutTime(),
+                    attendance.getWorkType());
+        }
+
+        static DayState apply(DayState state, Punch punch) {
+            if (punch.punchIn()) {
+                return new DayState(punch.date(), punch.time(), null, punch.workType());
+            }
+            LocalTime punchIn = state != null && state.date().equals(punch.date()) ? state.punchInTime() : null;
+            WorkType workType = state != null ? state.workType() : null;
+            return new DayState(punch.date(), punchIn, punch.time(), workType);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.leavemarker.service;
+
+import com.leavemarker.entity.Attendance;
+import com.leavemarker.enums.AttendanceStatus;
+import com.leavemarker.enums.WorkType;
+import com.leavemarker.repository.AttendanceMonthlyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps {@code attendance_monthly_rollups} in step with attendance rows. Callers take a
+ * {@link Contribution} of the row before changing it and pass it with the row after the change;
+ * only the difference is added, as one upsert. The row must be read with a row lock
+ * ({@code AttendanceRepository.findByIdForUpdate} or {@code findByEmployeeIdAndDateForUpdate}), so a
+ * concurrent punch-out, day close or mark cannot change it between the two and be counted twice.
+ * The counting rules here match the SQL in {@code AttendanceMonthlyRollupRepository} and
+ * {@code AttendanceRepositoryCustomImpl}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceRollupService implements ApplicationRunner {
+
+    private final AttendanceMonthlyRollupRepository rollupRepository;
+
+    /**
+     * Builds the rollups from existing attendance the first time the table is empty.
+     */
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        if (rollupRepository.count() == 0) {
+            int built = rollupRepository.rebuildAll(LocalDateTime.now());
+            if (built > 0) {
+                log.info("Built {} monthly attendance rollups from existing attendance", built);
+            }
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Contribution before, Attendance after) {
+        Contribution delta = Contribution.of(after).minus(before);
+        if (delta.isZero()) {
+            return;
+        }
+
+        rollupRepository.addCounts(after.getEmployee().getId(), after.getEmployee().getCompany().getId(),
+                after.getDate().getYear(), after.getDate().getMonthValue(),
+                delta.presentDays(), delta.absentDays(), delta.halfDays(), delta.wfhDays(), delta.workedMinutes(),
+                LocalDateTime.now());
+    }
+
+    /**
+     * What one attendance row adds to its month's counters.
+     */
+    public record Contribution(int presentDays, int absentDays, int halfDays, int wfhDays, long workedMinutes) {
+
+        public static final Contribution NONE = new Contribution(0, 0, 0, 0, 0);
+
+        public static Contribution of(Attendance attendance) {
+            if (attendance == null || Boolean.TRUE.equals(attendance.getDeleted())) {
+                return NONE;
+            }
+
+            AttendanceStatus status = attendance.getStatus();
+            boolean worked = status == AttendanceStatus.PRESENT || status == AttendanceStatus.HALF_DAY;
+            long minutes = attendance.getPunchInTime() != null && attendance.getPunchOutTime() != null
+                    && !attendance.getPunchOutTime().isBefore(attendance.getPunchInTime())
+                    ? Duration.between(attendance.getPunchInTime(), attendance.getPunchOutTime()).toMinutes()
+                    : 0;
+
+            return new Contribution(
+                    status == AttendanceStatus.PRESENT ? 1 : 0,
+                    status == AttendanceStatus.ABSENT ? 1 : 0,
+                    status == AttendanceStatus.HALF_DAY ? 1 : 0,
+                    worked && attendance.getWorkType() == WorkType.WFH ? 1 : 0,
+                    minutes);
+        }
+
+        Contribution minus(Contribution other) {
+            return new Contribution(presentDays - other.presentDays, absentDays - other.absentDays,
+                    halfDays - other.halfDays, wfhDays - other.wfhDays, workedMinutes - other.workedMinutes);
+        }
+
+        boolean isZero() {
+            return presentDays == 0 && absentDays == 0 && halfDays == 0 && wfhDays == 0 && workedMinutes == 0;
+        }
+    }
+}
@@ -4,19 +4,27 @@ import com.leavemarker.dto.attendance.AttendanceCorrectionRequest;
 import com.leavemarker.dto.attendance.AttendancePunchRequest;
 import com.leavemarker.dto.attendance.AttendanceResponse;
 import com.leavemarker.entity.Attendance;
+import com.leavemarker.entity.AttendanceMonthlyRollup;
 import com.leavemarker.entity.Employee;
 import com.leavemarker.enums.AttendanceStatus;
+import com.leavemarker.enums.IndianState;
 import com.leavemarker.exception.BadRequestException;
 import com.leavemarker.exception.ResourceNotFoundException;
+import com.leavemarker.repository.AttendanceMonthlyRollupRepository;
+import com.leavemarker.repository.AttendanceMonthlyRollupRepository.LocationSummaryView;
 import com.leavemarker.repository.AttendanceRepository;
 import com.leavemarker.repository.EmployeeRepository;
 import com.leavemarker.security.UserPrincipal;
+import com.leavemarker.service.AttendanceRollupService.Contribution;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,6 +35,12 @@ public class AttendanceService {
     private final AttendanceRepository attendanceRepository;
     private final EmployeeRepository employeeRepository;
     private final SubscriptionFeatureService subscriptionFeatureService;
+    private final WorkingDayCalendarService workingDayCalendarService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final AttendanceBoardService attendanceBoardService;
+    private final AttendanceMonthlyRollupRepository rollupRepository;
+    private final ReportCacheService reportCacheService;
+    private final CompanyTimeService companyTimeService;
 
     @Transactional
     public AttendanceResponse punchInOut(AttendancePunchRequest request, UserPrincipal currentUser) {
@@ -36,12 +50,13 @@ public class AttendanceService {
         // Check if attendance tracking is available on their plan
         subscriptionFeatureService.validateAttendanceAccess(currentUser.getCompanyId());
 
-        if (!request.getDate().equals(LocalDate.now())) {
+        if (!request.getDate().equals(companyTimeService.today(currentUser.getCompanyId()))) {
             throw new BadRequestException("Can only punch in/out for today's date");
         }
 
-        Optional<Attendance> existingAttendance = attendanceRepository.findByEmployeeIdAndDateAndDeletedFalse(
+        Optional<Attendance> existingAttendance = attendanceRepository.findByEmployeeIdAndDateForUpdate(
                 employee.getId(), request.getDate());
+        Contribution before = existingAttendance.map(Contribution::of).orElse(Contribution.NONE);
 
         Attendance attendance;
 
@@ -79,6 +94,9 @@ public class AttendanceService {
         }
 
         attendance = attendanceRepository.save(attendance);
+        reportCacheService.dataChanged(currentUser.getCompanyId());
+        attendanceRollupService.record(before, attendance);
+        publishToBoard(attendance);
         return mapToResponse(attendance);
     }
 
@@ -114,12 +132,13 @@ public class AttendanceService {
         attendance.setRemarks(originalValues + (request.getRemarks() != null ? " | " + request.getRemarks() : ""));
 
         attendance = attendanceRepository.save(attendance);
+        reportCacheService.dataChanged(currentUser.getCompanyId());
         return mapToResponse(attendance);
     }
 
     @Transactional
     public AttendanceResponse approveCorrection(Long attendanceId, AttendanceCorrectionRequest request, UserPrincipal currentUser) {
-        Attendance attendance = attendanceRepository.findById(attendanceId)
+        Attendance attendance = attendanceRepository.findByIdForUpdate(attendanceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found"));
 
         // Validate company access
@@ -135,6 +154,8 @@ public class AttendanceService {
             throw new BadRequestException("Correction already approved");
         }
 
+        Contribution before = Contribution.of(attendance);
+
         // Apply corrections
         if (request.getPunchInTime() != null) {
             attendance.setPunchInTime(request.getPunchInTime());
@@ -148,6 +169,9 @@ public class AttendanceService {
 
         attendance.setCorrectionApproved(true);
         attendance = attendanceRepository.save(attendance);
+        reportCacheService.dataChanged(currentUser.getCompanyId());
+        attendanceRollupService.record(before, attendance);
+        publishToBoard(attendance);
         return mapToResponse(attendance);
     }
 
@@ -172,6 +196,7 @@ public class AttendanceService {
         }
 
         attendance = attendanceRepository.save(attendance);
+        reportCacheService.dataChanged(currentUser.getCompanyId());
         return mapToResponse(attendance);
     }
 
@@ -190,7 +215,7 @@ public class AttendanceService {
 
     public AttendanceResponse getTodayAttendance(UserPrincipal currentUser) {
         Optional<Attendance> attendance = attendanceRepository.findByEmployeeIdAndDateAndDeletedFalse(
-                currentUser.getId(), LocalDate.now());
+                currentUser.getId(), companyTimeService.today(currentUser.getCompanyId()));
 
         return attendance.map(this::mapToResponse).orElse(null);
     }
@@ -212,6 +237,94 @@ public class AttendanceService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Present days, half days counting as half, against the working days of the month elapsed so far,
+     * holidays of the employee's work location excluded. Read from the monthly rollup.
+     */
+    public Map<String, Object> getMyAttendanceRate(YearMonth targetMonth, UserPrincipal currentUser) {
+        Employee employee = employeeRepository.findByIdAndDeletedFalse(currentUser.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Employee not found"));
+
+        Optional<AttendanceMonthlyRollup> rollup = rollupRepository.findByEmployeeIdAndYearAndMonthAndDeletedFalse(
+                employee.getId(), targetMonth.getYear(), targetMonth.getMonthValue());
+        int presentDays = rollup.map(AttendanceMonthlyRollup::getPresentDays).orElse(0);
+        int halfDays = rollup.map(AttendanceMonthlyRollup::getHalfDays).orElse(0);
+        long totalWorkingDays = elapsedWorkingDays(currentUser.getCompanyId(), employee.getWorkLocation(), targetMonth);
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("attendanceRate", rate(presentDays + halfDays / 2.0, totalWorkingDays));
+        stats.put("presentDays", presentDays);
+        stats.put("halfDays", halfDays);
+        stats.put("absentDays", rollup.map(AttendanceMonthlyRollup::getAbsentDays).orElse(0));
+        stats.put("wfhDays", rollup.map(AttendanceMonthlyRollup::getWfhDays).orElse(0));
+        stats.put("workedHours", rollup.map(r -> Math.round(r.getWorkedMinutes() / 6.0) / 10.0).orElse(0.0));
+        stats.put("totalWorkingDays", totalWorkingDays);
+        stats.put("month", targetMonth.getMonthValue());
+        stats.put("year", targetMonth.getYear());
+        return stats;
+    }
+
+    /**
+     * Company-wide attendance for the month from the rollups. Working days are counted per work
+     * location and weighted by the number of active employees there.
+     */
+    public Map<String, Object> getCompanyAttendanceRate(YearMonth targetMonth, UserPrincipal currentUser) {
+        Long companyId = currentUser.getCompanyId();
+
+        // Headcount and attended days come from the same set of active employees, one row per work location
+        long activeEmployees = 0;
+        long presentDays = 0;
+        long halfDays = 0;
+        long absentDays = 0;
+        long wfhDays = 0;
+        long workedMinutes = 0;
+        long expectedDays = 0;
+        for (LocationSummaryView location : rollupRepository.summarizeActiveByLocation(
+                companyId, targetMonth.getYear(), targetMonth.getMonthValue())) {
+            activeEmployees += location.getEmployees();
+            presentDays += location.getPresentDays();
+            halfDays += location.getHalfDays();
+            absentDays += location.getAbsentDays();
+            wfhDays += location.getWfhDays();
+            workedMinutes += location.getWorkedMinutes();
+            expectedDays += location.getEmployees()
+                    * elapsedWorkingDays(companyId, location.getWorkLocation(), targetMonth);
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("attendanceRate", rate(presentDays + halfDays / 2.0, expectedDays));
+        stats.put("activeEmployees", activeEmployees);
+        stats.put("presentDays", presentDays);
+        stats.put("halfDays", halfDays);
+        stats.put("absentDays", absentDays);
+        stats.put("wfhDays", wfhDays);
+        stats.put("workedHours", Math.round(workedMinutes / 6.0) / 10.0);
+        stats.put("expectedWorkingDays", expectedDays);
+        stats.put("month", targetMonth.getMonthValue());
+        stats.put("year", targetMonth.getYear());
+        return stats;
+    }
+
+    private long elapsedWorkingDays(Long companyId, IndianState location, YearMonth month) {
+        LocalDate startDate = month.atDay(1);
+        LocalDate endDate = month.atEndOfMonth();
+        LocalDate today = companyTimeService.today(companyId);
+        if (endDate.isAfter(today)) {
+            endDate = today;
+        }
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+        return workingDayCalendarService.countWorkingDays(companyId, location, startDate, endDate);
+    }
+
+    private static double rate(double attendedDays, long workingDays) {
+        double attendanceRate = workingDays > 0
+            ? Math.min(100.0, attendedDays * 100.0 / workingDays)
+            : 0.0;
+        return Math.round(attendanceRate * 10.0) / 10.0;
+    }
+
     public List<AttendanceResponse> getAttendanceByDateRange(
             LocalDate startDate, LocalDate endDate, UserPrincipal currentUser) {
         List<Attendance> attendances = attendanceRepository.findByCompanyIdAndDateRange(
@@ -240,8 +353,9 @@ public class AttendanceService {
             throw new BadRequestException("Access denied");
         }
 
-        Optional<Attendance> existingAttendance = attendanceRepository.findByEmployeeIdAndDateAndDeletedFalse(
+        Optional<Attendance> existingAttendance = attendanceRepository.findByEmployeeIdAndDateForUpdate(
                 employeeId, date);
+        Contribution before = existingAttendance.map(Contribution::of).orElse(Contribution.NONE);
 
         Attendance attendance;
         if (existingAttendance.isPresent()) {
@@ -262,9 +376,18 @@ public class AttendanceService {
         }
 
         attendance = attendanceRepository.save(attendance);
+        reportCacheService.dataChanged(currentUser.getCompanyId());
+        attendanceRollupService.record(before, attendance);
+        publishToBoard(attendance);
         return mapToResponse(attendance);
     }
 
+    private void publishToBoard(Attendance attendance) {
+        attendanceBoardService.attendanceChanged(attendance.getEmployee().getCompany().getId(),
+                attendance.getEmployee().getId(), attendance.getDate(), attendance.getStatus(),
+                attendance.getPunchOutTime() != null, attendance.getWorkType());
+    }
+
     private AttendanceResponse mapToResponse(Attendance attendance) {
         return AttendanceResponse.builder()
                 .id(attendance.getId())
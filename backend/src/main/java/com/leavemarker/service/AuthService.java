@@ -13,11 +13,14 @@ import com.leavemarker.enums.Role;
 import com.leavemarker.enums.SubscriptionStatus;
 import com.leavemarker.exception.BadRequestException;
 import com.leavemarker.exception.ResourceNotFoundException;
+import com.leavemarker.exception.UnauthorizedException;
 import com.leavemarker.repository.CompanyRepository;
 import com.leavemarker.repository.EmployeeRepository;
 import com.leavemarker.repository.PlanRepository;
 import com.leavemarker.repository.SubscriptionRepository;
 import com.leavemarker.security.JwtTokenProvider;
+import com.leavemarker.security.TokenVersionRegistry;
+import com.leavemarker.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -45,6 +48,8 @@ public class AuthService {
     private final SubscriptionRepository subscriptionRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final RefreshTokenService refreshTokenService;
 
     @Transactional
     public JwtAuthResponse signup(SignupRequest request) {
@@ -81,21 +86,7 @@ public class AuthService {
         // Auto-create FREE subscription for new companies
         createFreeSubscription(company);
 
-        String jwt = tokenProvider.generateTokenFromEmail(
-                employee.getEmail(),
-                employee.getId(),
-                employee.getRole().name(),
-                company.getId()
-        );
-
-        return JwtAuthResponse.builder()
-                .accessToken(jwt)
-                .userId(employee.getId())
-                .email(employee.getEmail())
-                .fullName(employee.getFullName())
-                .role(employee.getRole().name())
-                .companyId(company.getId())
-                .build();
+        return buildAuthResponse(employee);
     }
 
     public JwtAuthResponse login(LoginRequest request) {
@@ -104,19 +95,26 @@ public class AuthService {
         );
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
 
         Employee employee = employeeRepository.findByEmailAndDeletedFalse(request.getEmail())
                 .orElseThrow(() -> new ResourceNotFoundException("Employee not found"));
 
-        return JwtAuthResponse.builder()
-                .accessToken(jwt)
-                .userId(employee.getId())
-                .email(employee.getEmail())
-                .fullName(employee.getFullName())
-                .role(employee.getRole().name())
-                .companyId(employee.getCompany().getId())
-                .build();
+        return buildAuthResponse(employee);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * The presented refresh token is revoked; no password check or user lookup by email is needed.
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public JwtAuthResponse refresh(String refreshToken) {
+        Employee employee = refreshTokenService.consume(refreshToken);
+        return buildAuthResponse(employee);
+    }
+
+    @Transactional
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
     }
 
     @Transactional
@@ -146,7 +144,28 @@ public class AuthService {
         employee.setPassword(passwordEncoder.encode(request.getNewPassword()));
         employee.setPasswordResetToken(null);
         employee.setPasswordResetTokenExpiry(null);
+        employee.setTokenVersion(employee.getTokenVersion() + 1);
         employeeRepository.save(employee);
+        refreshTokenService.revokeAllForEmployee(employee.getId());
+        tokenVersionRegistry.update(employee.getId(), employee.getTokenVersion(),
+                employee.getStatus(), employee.getDeleted());
+    }
+
+    private JwtAuthResponse buildAuthResponse(Employee employee) {
+        String jwt = tokenProvider.generateToken(UserPrincipal.create(employee));
+        String refreshToken = refreshTokenService.issue(employee);
+
+        return JwtAuthResponse.builder()
+                .accessToken(jwt)
+                .expiresIn(tokenProvider.getJwtExpiration() / 1000)
+                .refreshToken(refreshToken)
+                .refreshExpiresIn(tokenProvider.getRefreshExpiration() / 1000)
+                .userId(employee.getId())
+                .email(employee.getEmail())
+                .fullName(employee.getFullName())
+                .role(employee.getRole().name())
+                .companyId(employee.getCompany().getId())
+                .build();
     }
 
     /**
@@ -0,0 +1,159 @@
+package com.leavemarker.service;
+
+import com.leavemarker.entity.JobRun;
+import com.leavemarker.enums.JobStatus;
+import com.leavemarker.repository.CompanyRepository;
+import com.leavemarker.repository.JobRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Runs scheduled work so that each unit executes on exactly one replica at a time.
+ * Exclusivity comes from a Postgres session advisory lock keyed by job name and company, held on a
+ * dedicated connection for the length of the run. A replica that cannot take the lock skips the unit.
+ * Per-company jobs walk the company list from a random offset, so replicas firing together spread out
+ * over different companies instead of queueing on the same lock. A unit can still run again once its
+ * lock is released, so the jobs themselves must be idempotent. Every run is recorded in {@code job_runs}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterJobRunner {
+
+    private static final long GLOBAL = 0L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobRunRepository jobRunRepository;
+    private final CompanyRepository companyRepository;
+
+    @Value("${jobs.node-id:${HOSTNAME:local}}")
+    private String nodeId;
+
+    /**
+     * Runs an installation-wide job if no other replica is running it.
+     */
+    public void runGlobal(String jobName, IntSupplier job) {
+        runLocked(jobName, GLOBAL, job);
+    }
+
+    /**
+     * Runs the job once per active company, skipping companies another replica is already handling.
+     */
+    public void runPerCompany(String jobName, LongToIntFunction job) {
+        runForCompanies(jobName, companyRepository.findActiveIds(), job);
+    }
+
+    /**
+     * Runs the job once for each of the given companies, skipping companies another replica is already handling.
+     */
+    public void runForCompanies(String jobName, List<Long> companyIds, LongToIntFunction job) {
+        if (companyIds.isEmpty()) {
+            return;
+        }
+
+        int offset = ThreadLocalRandom.current().nextInt(companyIds.size());
+        int ran = 0;
+        for (int i = 0; i < companyIds.size(); i++) {
+            long companyId = companyIds.get((offset + i) % companyIds.size());
+            if (runLocked(jobName, companyId, () -> job.applyAsInt(companyId))) {
+                ran++;
+            }
+        }
+        log.info("Job {} handled {} of {} companies on node {}", jobName, ran, companyIds.size(), nodeId);
+    }
+
+    /**
+     * Runs the job for one company if no other replica is running it. For work started on demand that
+     * must not overlap the scheduled run of the same job. Returns whether it ran.
+     */
+    public boolean runForCompany(String jobName, long companyId, IntSupplier job) {
+        return runLocked(jobName, companyId, job);
+    }
+
+    /**
+     * Returns whether this replica took the lock and ran the job.
+     */
+    private boolean runLocked(String jobName, long companyId, IntSupplier job) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!tryLock(connection, jobName, companyId)) {
+                return false;
+            }
+            try {
+                record(jobName, companyId, job);
+            } finally {
+                unlock(connection, jobName, companyId);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private void record(String jobName, long companyId, IntSupplier job) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        JobRun run = jobRunRepository.save(JobRun.builder()
+                .jobName(jobName)
+                .company(companyId == GLOBAL ? null : companyRepository.getReferenceById(companyId))
+                .nodeId(nodeId)
+                .status(JobStatus.RUNNING)
+                .startedAt(startedAt)
+                .build());
+
+        try {
+            run.setItemsProcessed(job.getAsInt());
+            run.setStatus(JobStatus.COMPLETED);
+        } catch (Exception ex) {
+            log.error("Job {} failed for company {}", jobName, companyId, ex);
+            String message = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            run.setStatus(JobStatus.FAILED);
+            run.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+        }
+
+        run.setCompletedAt(LocalDateTime.now());
+        run.setDurationMs(Duration.between(startedAt, run.getCompletedAt()).toMillis());
+        jobRunRepository.save(run);
+        log.info("Job {} for company {} finished {} in {} ms", jobName, companyId, run.getStatus(), run.getDurationMs());
+    }
+
+    private static boolean tryLock(Connection connection, String jobName, long companyId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_try_advisory_lock(CAST(? AS int), CAST(? AS int))")) {
+            statement.setInt(1, jobName.hashCode());
+            statement.setInt(2, Long.hashCode(companyId));
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private static void unlock(Connection connection, String jobName, long companyId) {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_advisory_unlock(CAST(? AS int), CAST(? AS int))")) {
+            statement.setInt(1, jobName.hashCode());
+            statement.setInt(2, Long.hashCode(companyId));
+            statement.execute();
+        } catch (SQLException ex) {
+            // Session locks outlive the pool checkout, so a connection that still holds one must not be reused
+            log.warn("Could not release lock for job {} and company {}, discarding connection", jobName, companyId, ex);
+            try {
+                connection.abort(Runnable::run);
+            } catch (SQLException ignored) {
+                // The connection is already unusable
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.leavemarker.service;
+
+import com.leavemarker.repository.CompanyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves a company's timezone, in which attendance days begin and end. Punches, the live board and
+ * the end-of-day closing all take "today" from here, so they agree on the date whatever the server's zone.
+ * Zones are cached per company for {@code company.timezone-cache-ttl}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CompanyTimeService {
+
+    public static final ZoneId DEFAULT_ZONE = ZoneId.of("Asia/Kolkata");
+
+    private final CompanyRepository companyRepository;
+
+    private final ConcurrentHashMap<Long, CachedZone> zones = new ConcurrentHashMap<>();
+
+    @Value("${company.timezone-cache-ttl:3600000}")
+    private long cacheTtlMs;
+
+    public LocalDate today(Long companyId) {
+        return LocalDate.now(zone(companyId));
+    }
+
+    public ZoneId zone(Long companyId) {
+        CachedZone cached = zones.get(companyId);
+        if (cached == null || System.currentTimeMillis() - cached.loadedAt() > cacheTtlMs) {
+            cached = new CachedZone(resolve(companyId, companyRepository.findTimezoneById(companyId)),
+                    System.currentTimeMillis());
+            zones.put(companyId, cached);
+        }
+        return cached.zone();
+    }
+
+    /**
+     * Parses a stored timezone, falling back to {@link #DEFAULT_ZONE} when it is missing or invalid.
+     */
+    public ZoneId resolve(Long companyId, String timezone) {
+        if (timezone == null) {
+            return DEFAULT_ZONE;
+        }
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException ex) {
+            log.warn("Company {} has invalid timezone {}, using {}", companyId, timezone, DEFAULT_ZONE);
+            return DEFAULT_ZONE;
+        }
+    }
+
+    private record CachedZone(ZoneId zone, long loadedAt) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.leavemarker.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-company version counters kept on the {@code companies} row, which caches compare their entries
+ * against so that a change made on any replica invalidates them everywhere. A bump inside a transaction
+ * is written just before commit, so it becomes visible together with the change and the company row is
+ * only locked for the commit itself. Companies are bumped in id order so that two transactions touching
+ * the same companies cannot deadlock.
+ */
+@Service
+@RequiredArgsConstructor
+public class CompanyVersionService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The company's current version, or 0 for an unknown company so the caller's own lookup reports it.
+     */
+    public long current(Long companyId, Kind kind) {
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT " + kind.column + " FROM companies WHERE id = ?", Long.class, companyId);
+        return versions.isEmpty() || versions.get(0) == null ? 0L : versions.get(0);
+    }
+
+    /**
+     * Moves the company's version on, after the current transaction's other writes and just before it commits.
+     */
+    @SuppressWarnings("unchecked")
+    public void bump(Long companyId, Kind kind) {
+        if (companyId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(companyId, EnumSet.of(kind));
+            return;
+        }
+
+        Map<Long, EnumSet<Kind>> pending =
+                (Map<Long, EnumSet<Kind>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, EnumSet<Kind>> companies = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, companies);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    companies.forEach(CompanyVersionService.this::write);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CompanyVersionService.this);
+                }
+            });
+            pending = companies;
+        }
+        pending.computeIfAbsent(companyId, id -> EnumSet.noneOf(Kind.class)).add(kind);
+    }
+
+    private void write(Long companyId, EnumSet<Kind> kinds) {
+        String assignments = kinds.stream()
+                .map(kind -> kind.column + " = " + kind.column + " + 1")
+                .collect(Collectors.joining(", "));
+        jdbcTemplate.update("UPDATE companies SET " + assignments + " WHERE id = ?", companyId);
+    }
+
+    /**
+     * What a counter tracks, and the {@code companies} column it lives in.
+     */
+    public enum Kind {
+        REPORT_DATA("data_generation"),
+        SUBSCRIPTION("subscription_version"),
+        HOLIDAYS("holiday_version");
+
+        private final String column;
+
+        Kind(String column) {
+            this.column = column;
+        }
+    }
+}
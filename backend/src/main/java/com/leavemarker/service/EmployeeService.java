@@ -6,10 +6,12 @@ import com.leavemarker.dto.employee.EmployeeUpdateRequest;
 import com.leavemarker.entity.Company;
 import com.leavemarker.entity.Employee;
 import com.leavemarker.enums.EmployeeStatus;
+import com.leavemarker.enums.Role;
 import com.leavemarker.exception.BadRequestException;
 import com.leavemarker.exception.ResourceNotFoundException;
 import com.leavemarker.repository.CompanyRepository;
 import com.leavemarker.repository.EmployeeRepository;
+import com.leavemarker.security.TokenVersionRegistry;
 import com.leavemarker.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -27,6 +29,8 @@ public class EmployeeService {
     private final CompanyRepository companyRepository;
     private final PasswordEncoder passwordEncoder;
     private final SubscriptionFeatureService subscriptionFeatureService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final ReportCacheService reportCacheService;
 
     @Transactional
     public EmployeeResponse createEmployee(EmployeeRequest request, UserPrincipal currentUser) {
@@ -105,6 +109,11 @@ public class EmployeeService {
             throw new BadRequestException("Access denied");
         }
 
+        Role previousRole = employee.getRole();
+        EmployeeStatus previousStatus = employee.getStatus();
+        String previousEmail = employee.getEmail();
+        String previousFullName = employee.getFullName();
+
         if (request.getFullName() != null) {
             employee.setFullName(request.getFullName());
         }
@@ -141,7 +150,22 @@ public class EmployeeService {
             employee.setStatus(request.getStatus());
         }
 
+        // Tokens carry email and role, so any change to them (or to the status) invalidates issued tokens
+        boolean revokeTokens = employee.getRole() != previousRole
+                || employee.getStatus() != previousStatus
+                || !employee.getEmail().equals(previousEmail);
+        if (revokeTokens) {
+            employee.setTokenVersion(employee.getTokenVersion() + 1);
+        }
+
         employee = employeeRepository.save(employee);
+        if (revokeTokens) {
+            publishTokenVersion(employee);
+        }
+        // Reports print the employee's name next to every row
+        if (!employee.getFullName().equals(previousFullName)) {
+            reportCacheService.dataChanged(employee.getCompany().getId());
+        }
         return mapToResponse(employee);
     }
 
@@ -155,7 +179,9 @@ public class EmployeeService {
         }
 
         employee.setStatus(EmployeeStatus.INACTIVE);
+        employee.setTokenVersion(employee.getTokenVersion() + 1);
         employeeRepository.save(employee);
+        publishTokenVersion(employee);
     }
 
     @Transactional
@@ -168,7 +194,14 @@ public class EmployeeService {
         }
 
         employee.setStatus(EmployeeStatus.ACTIVE);
+        employee.setTokenVersion(employee.getTokenVersion() + 1);
         employeeRepository.save(employee);
+        publishTokenVersion(employee);
+    }
+
+    private void publishTokenVersion(Employee employee) {
+        tokenVersionRegistry.update(employee.getId(), employee.getTokenVersion(),
+                employee.getStatus(), employee.getDeleted());
     }
 
     private EmployeeResponse mapToResponse(Employee employee) {
@@ -0,0 +1,75 @@
+package com.leavemarker.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a single-sheet report through SXSSF. Only the last {@code rowWindow} rows stay in memory;
+ * older rows are flushed to a compressed temp file, so heap use does not grow with the row count.
+ * Column widths are fixed up front because autosizing needs every row in memory.
+ */
+final class ExcelReportWriter implements AutoCloseable {
+
+    private static final int MAX_COLUMN_WIDTH = 255;
+
+    private final SXSSFWorkbook workbook;
+    private final Sheet sheet;
+    private int nextRow;
+
+    /**
+     * @param columnWidths width of each column in characters
+     */
+    ExcelReportWriter(String sheetName, String[] headers, int[] columnWidths, int rowWindow) {
+        workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        sheet = workbook.createSheet(sheetName);
+
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerStyle.setFont(headerFont);
+
+        Row headerRow = sheet.createRow(nextRow++);
+        for (int i = 0; i < headers.length; i++) {
+            sheet.setColumnWidth(i, Math.min(columnWidths[i], MAX_COLUMN_WIDTH) * 256);
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+        }
+    }
+
+    /**
+     * Appends a row. Numbers are written as numeric cells, nulls as empty strings and anything else as text.
+     */
+    void addRow(Object... values) {
+        Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < values.length; i++) {
+            Cell cell = row.createCell(i);
+            Object value = values[i];
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else {
+                cell.setCellValue(value != null ? value.toString() : "");
+            }
+        }
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // dispose() removes the temp files backing flushed rows; close() alone leaves them on disk
+        workbook.dispose();
+        workbook.close();
+    }
+}
@@ -23,6 +23,7 @@ public class HolidayService {
 
     private final HolidayRepository holidayRepository;
     private final CompanyRepository companyRepository;
+    private final WorkingDayCalendarService workingDayCalendarService;
 
     @Transactional
     public HolidayResponse createHoliday(HolidayRequest request, UserPrincipal currentUser) {
@@ -43,6 +44,7 @@ public class HolidayService {
                 .build();
 
         holiday = holidayRepository.save(holiday);
+        workingDayCalendarService.evictCompany(currentUser.getCompanyId());
         return mapToResponse(holiday);
     }
 
@@ -98,6 +100,7 @@ public class HolidayService {
         holiday.setActive(request.getActive());
 
         holiday = holidayRepository.save(holiday);
+        workingDayCalendarService.evictCompany(currentUser.getCompanyId());
         return mapToResponse(holiday);
     }
 
@@ -112,6 +115,7 @@ public class HolidayService {
 
         holiday.setDeleted(true);
         holidayRepository.save(holiday);
+        workingDayCalendarService.evictCompany(currentUser.getCompanyId());
     }
 
     private HolidayResponse mapToResponse(Holiday holiday) {
@@ -1,37 +1,68 @@
 package com.leavemarker.service;
 
+import com.leavemarker.config.LeaveOverlapConstraintInitializer;
+import com.leavemarker.dto.CursorPageResponse;
+import com.leavemarker.dto.leaveapplication.BulkLeaveApprovalRequest;
+import com.leavemarker.dto.leaveapplication.BulkLeaveApprovalResponse;
+import com.leavemarker.dto.leaveapplication.BulkLeaveApprovalResult;
 import com.leavemarker.dto.leaveapplication.LeaveApplicationRequest;
 import com.leavemarker.dto.leaveapplication.LeaveApplicationResponse;
 import com.leavemarker.dto.leaveapplication.LeaveApprovalRequest;
 import com.leavemarker.entity.Employee;
 import com.leavemarker.entity.LeaveApplication;
-import com.leavemarker.entity.LeaveBalance;
+import com.leavemarker.entity.LeaveBalanceLedgerEntry;
 import com.leavemarker.entity.LeavePolicy;
+import com.leavemarker.enums.LeaveMovementType;
 import com.leavemarker.enums.LeaveStatus;
+import com.leavemarker.enums.LeaveType;
 import com.leavemarker.exception.BadRequestException;
 import com.leavemarker.exception.ResourceNotFoundException;
 import com.leavemarker.repository.EmployeeRepository;
 import com.leavemarker.repository.LeaveApplicationRepository;
 import com.leavemarker.repository.LeaveBalanceRepository;
+import com.leavemarker.repository.LeaveBalanceRepositoryCustom.BalanceDelta;
 import com.leavemarker.repository.LeavePolicyRepository;
 import com.leavemarker.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class LeaveApplicationService {
 
+    private static final String OVERLAP_MESSAGE = "Leave dates overlap with existing leave application";
+
     private final LeaveApplicationRepository leaveApplicationRepository;
     private final EmployeeRepository employeeRepository;
     private final LeavePolicyRepository leavePolicyRepository;
     private final LeaveBalanceRepository leaveBalanceRepository;
+    private final WorkingDayCalendarService workingDayCalendarService;
+    private final LeaveLedgerService leaveLedgerService;
+    private final AttendanceBoardService attendanceBoardService;
+    private final ReportCacheService reportCacheService;
+
+    @Value("${leave.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${leave.page.max-size:100}")
+    private int maxPageSize;
 
     @Transactional
     public LeaveApplicationResponse applyLeave(LeaveApplicationRequest request, UserPrincipal currentUser) {
@@ -66,22 +97,28 @@ public class LeaveApplicationService {
         }
 
         // Calculate number of days
-        double numberOfDays = calculateLeaveDays(request.getStartDate(), request.getEndDate(), request.getIsHalfDay());
+        double numberOfDays = calculateLeaveDays(employee, request.getStartDate(), request.getEndDate(), request.getIsHalfDay());
+        if (numberOfDays == 0) {
+            throw new BadRequestException("Selected dates do not include any working day");
+        }
 
         // Check for overlapping leaves
-        List<LeaveApplication> overlappingLeaves = leaveApplicationRepository.findOverlappingLeaves(
-                employee.getId(), request.getStartDate(), request.getEndDate());
-        if (!overlappingLeaves.isEmpty()) {
-            throw new BadRequestException("Leave dates overlap with existing leave application");
+        if (leaveApplicationRepository.existsOverlappingLeave(
+                employee.getId(), request.getStartDate(), request.getEndDate())) {
+            throw new BadRequestException(OVERLAP_MESSAGE);
         }
 
-        // Check leave balance
+        // Reserve the days as pending; the guarded update cannot overspend under concurrent submissions
         int currentYear = LocalDate.now().getYear();
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeAndYearAndDeletedFalse(
-                employee.getId(), request.getLeaveType(), currentYear).orElse(null);
-
-        if (balance != null && balance.getAvailable() < numberOfDays) {
-            throw new BadRequestException("Insufficient leave balance. Available: " + balance.getAvailable() + " days");
+        int reserved = leaveBalanceRepository.reservePending(
+                employee.getId(), request.getLeaveType(), currentYear, numberOfDays, LocalDateTime.now());
+        if (reserved == 0) {
+            // Either the balance is short or leave of this type is not tracked for the year
+            leaveBalanceRepository.findByEmployeeIdAndLeaveTypeAndYearAndDeletedFalse(
+                    employee.getId(), request.getLeaveType(), currentYear)
+                    .ifPresent(balance -> {
+                        throw new BadRequestException("Insufficient leave balance. Available: " + balance.getAvailable() + " days");
+                    });
         }
 
         // Determine if HR approval is required (e.g., leaves > 5 days)
@@ -101,15 +138,22 @@ public class LeaveApplicationService {
                 .requiresHrApproval(requiresHrApproval)
                 .build();
 
-        application = leaveApplicationRepository.save(application);
+        // The exclusion constraint rejects a concurrent submission that slipped past the check above
+        try {
+            application = leaveApplicationRepository.saveAndFlush(application);
+        } catch (DataIntegrityViolationException ex) {
+            if (isOverlapViolation(ex)) {
+                throw new BadRequestException(OVERLAP_MESSAGE);
+            }
+            throw ex;
+        }
 
-        // Update leave balance - mark as pending
-        if (balance != null) {
-            balance.setPending(balance.getPending() + numberOfDays);
-            balance.setAvailable(balance.getTotalQuota() - balance.getUsed() - balance.getPending());
-            leaveBalanceRepository.save(balance);
+        if (reserved > 0) {
+            leaveLedgerService.record(employee.getId(), request.getLeaveType(), currentYear, LeaveMovementType.APPLY,
+                    0, 0, numberOfDays, application);
         }
 
+        reportCacheService.dataChanged(currentUser.getCompanyId());
         return mapToResponse(application);
     }
 
@@ -122,14 +166,7 @@ public class LeaveApplicationService {
         Employee manager = employeeRepository.findByIdAndDeletedFalse(currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Manager not found"));
 
-        if (application.getEmployee().getManager() == null ||
-            !application.getEmployee().getManager().getId().equals(manager.getId())) {
-            throw new BadRequestException("You are not authorized to approve this leave");
-        }
-
-        if (application.getStatus() != LeaveStatus.PENDING) {
-            throw new BadRequestException("Leave application is not in pending status");
-        }
+        checkManagerCanDecide(application, manager.getId());
 
         if (request.getApproved()) {
             // Manager approved
@@ -143,16 +180,18 @@ public class LeaveApplicationService {
                 // No HR approval needed, mark as approved
                 application.setStatus(LeaveStatus.APPROVED);
                 updateLeaveBalanceOnApproval(application);
+                publishToBoard(application, true);
             }
         } else {
             // Manager rejected
             application.setStatus(LeaveStatus.REJECTED);
             application.setRejectionReason(request.getReason());
             application.setRejectionDate(LocalDate.now());
-            revertPendingBalance(application);
+            revertPendingBalance(application, LeaveMovementType.REJECT);
         }
 
         application = leaveApplicationRepository.save(application);
+        reportCacheService.dataChanged(currentUser.getCompanyId());
         return mapToResponse(application);
     }
 
@@ -161,22 +200,7 @@ public class LeaveApplicationService {
         LeaveApplication application = leaveApplicationRepository.findById(applicationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Leave application not found"));
 
-        // Validate company access
-        if (!application.getEmployee().getCompany().getId().equals(currentUser.getCompanyId())) {
-            throw new BadRequestException("Access denied");
-        }
-
-        if (application.getStatus() != LeaveStatus.PENDING) {
-            throw new BadRequestException("Leave application is not in pending status");
-        }
-
-        if (!application.getRequiresHrApproval()) {
-            throw new BadRequestException("This leave application does not require HR approval");
-        }
-
-        if (application.getApprovedByManager() == null) {
-            throw new BadRequestException("Leave must be approved by manager first");
-        }
+        checkHrCanDecide(application, currentUser.getCompanyId());
 
         Employee hr = employeeRepository.findByIdAndDeletedFalse(currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("HR not found"));
@@ -187,18 +211,35 @@ public class LeaveApplicationService {
             application.setHrApprovalDate(LocalDate.now());
             application.setStatus(LeaveStatus.APPROVED);
             updateLeaveBalanceOnApproval(application);
+            publishToBoard(application, true);
         } else {
             // HR rejected
             application.setStatus(LeaveStatus.REJECTED);
             application.setRejectionReason(request.getReason());
             application.setRejectionDate(LocalDate.now());
-            revertPendingBalance(application);
+            revertPendingBalance(application, LeaveMovementType.REJECT);
         }
 
         application = leaveApplicationRepository.save(application);
+        reportCacheService.dataChanged(currentUser.getCompanyId());
         return mapToResponse(application);
     }
 
+    /**
+     * Applies one decision to many applications in a single transaction. Applications are loaded in one
+     * query, balance changes are summed per balance row and written as one JDBC batch.
+     * Items that fail validation are reported individually and do not affect the others.
+     */
+    @Transactional
+    public BulkLeaveApprovalResponse bulkApproveByManager(BulkLeaveApprovalRequest request, UserPrincipal currentUser) {
+        return processBulkDecision(request, currentUser, true);
+    }
+
+    @Transactional
+    public BulkLeaveApprovalResponse bulkApproveByHr(BulkLeaveApprovalRequest request, UserPrincipal currentUser) {
+        return processBulkDecision(request, currentUser, false);
+    }
+
     @Transactional
     public LeaveApplicationResponse cancelLeave(Long applicationId, UserPrincipal currentUser) {
         LeaveApplication application = leaveApplicationRepository.findById(applicationId)
@@ -221,12 +262,14 @@ public class LeaveApplicationService {
         LeaveStatus previousStatus = application.getStatus();
         application.setStatus(LeaveStatus.CANCELLED);
         application = leaveApplicationRepository.save(application);
+        reportCacheService.dataChanged(currentUser.getCompanyId());
 
         // Revert leave balance
         if (previousStatus == LeaveStatus.APPROVED) {
             revertApprovedBalance(application);
+            publishToBoard(application, false);
         } else if (previousStatus == LeaveStatus.PENDING) {
-            revertPendingBalance(application);
+            revertPendingBalance(application, LeaveMovementType.CANCEL);
         }
 
         return mapToResponse(application);
@@ -246,94 +289,300 @@ public class LeaveApplicationService {
     }
 
     public List<LeaveApplicationResponse> getMyLeaveApplications(UserPrincipal currentUser) {
-        List<LeaveApplication> applications = leaveApplicationRepository.findByEmployeeIdAndDeletedFalse(
-                currentUser.getId());
-        return applications.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return leaveApplicationRepository.findResponsesByEmployeeId(currentUser.getId());
     }
 
-    public List<LeaveApplicationResponse> getPendingApprovalsForManager(UserPrincipal currentUser) {
-        List<LeaveApplication> applications = leaveApplicationRepository.findByManagerIdAndStatus(
+    public CursorPageResponse<LeaveApplicationResponse> getMyLeaveApplicationsPage(
+            String cursor, Integer size, UserPrincipal currentUser) {
+        Pageable pageable = pageRequest(size);
+        LeaveCursor after = LeaveCursor.decode(cursor);
+        List<LeaveApplicationResponse> rows = after == null
+                ? leaveApplicationRepository.findResponsePageByEmployeeId(currentUser.getId(), pageable)
+                : leaveApplicationRepository.findResponsePageByEmployeeIdBefore(
+                        currentUser.getId(), after.startDate(), after.id(), pageable);
+        return toPage(rows, pageable.getPageSize() - 1);
+    }
+
+    public CursorPageResponse<LeaveApplicationResponse> getLeaveApplicationsByDateRangePage(
+            LocalDate startDate, LocalDate endDate, String cursor, Integer size, UserPrincipal currentUser) {
+        Pageable pageable = pageRequest(size);
+        LeaveCursor after = LeaveCursor.decode(cursor);
+        List<LeaveApplicationResponse> rows = after == null
+                ? leaveApplicationRepository.findResponsePageByCompanyIdAndDateRange(
+                        currentUser.getCompanyId(), startDate, endDate, pageable)
+                : leaveApplicationRepository.findResponsePageByCompanyIdAndDateRangeAfter(
+                        currentUser.getCompanyId(), startDate, endDate, after.startDate(), after.id(), pageable);
+        return toPage(rows, pageable.getPageSize() - 1);
+    }
+
+    public long countMyPendingApplications(UserPrincipal currentUser) {
+        return leaveApplicationRepository.countByEmployeeIdAndStatusAndDeletedFalse(
                 currentUser.getId(), LeaveStatus.PENDING);
-        // Filter out those that already have manager approval but are waiting for HR
-        return applications.stream()
-                .filter(app -> app.getApprovedByManager() == null)
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    }
+
+    public List<LeaveApplicationResponse> getPendingApprovalsForManager(UserPrincipal currentUser) {
+        // Excludes those that already have manager approval but are waiting for HR
+        return leaveApplicationRepository.findPendingResponsesForManager(currentUser.getId());
     }
 
     public List<LeaveApplicationResponse> getPendingApprovalsForHr(UserPrincipal currentUser) {
-        List<LeaveApplication> applications = leaveApplicationRepository.findByCompanyIdAndStatus(
-                currentUser.getCompanyId(), LeaveStatus.PENDING);
-        // Filter to only those requiring HR approval and already approved by manager
-        return applications.stream()
-                .filter(app -> app.getRequiresHrApproval() && app.getApprovedByManager() != null && app.getApprovedByHr() == null)
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        // Only those requiring HR approval and already approved by manager
+        return leaveApplicationRepository.findPendingResponsesForHr(currentUser.getCompanyId());
     }
 
     public List<LeaveApplicationResponse> getLeaveApplicationsByDateRange(
             LocalDate startDate, LocalDate endDate, UserPrincipal currentUser) {
-        List<LeaveApplication> applications = leaveApplicationRepository.findByCompanyIdAndDateRange(
+        return leaveApplicationRepository.findResponsesByCompanyIdAndDateRange(
                 currentUser.getCompanyId(), startDate, endDate);
-        return applications.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
     }
 
-    private double calculateLeaveDays(LocalDate startDate, LocalDate endDate, boolean isHalfDay) {
-        if (isHalfDay) {
-            return 0.5;
+    // One extra row tells whether another page exists without a count query
+    private Pageable pageRequest(Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    private CursorPageResponse<LeaveApplicationResponse> toPage(List<LeaveApplicationResponse> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new CursorPageResponse<>(rows, null, false);
+        }
+
+        List<LeaveApplicationResponse> items = rows.subList(0, pageSize);
+        LeaveApplicationResponse last = items.get(pageSize - 1);
+        return new CursorPageResponse<>(items, new LeaveCursor(last.getStartDate(), last.getId()).encode(), true);
+    }
+
+    /**
+     * Position after the last row of a page, handed to clients as an opaque token.
+     */
+    private record LeaveCursor(LocalDate startDate, Long id) {
+
+        String encode() {
+            String raw = startDate + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
         }
 
-        long totalDays = 0;
-        LocalDate date = startDate;
-        while (!date.isAfter(endDate)) {
-            // Skip weekends (Saturday and Sunday)
-            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
-                totalDays++;
+        static LeaveCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                return new LeaveCursor(LocalDate.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException ex) {
+                throw new BadRequestException("Invalid cursor");
             }
-            date = date.plusDays(1);
+        }
+    }
+
+    private void checkManagerCanDecide(LeaveApplication application, Long managerId) {
+        if (application.getEmployee().getManager() == null ||
+            !application.getEmployee().getManager().getId().equals(managerId)) {
+            throw new BadRequestException("You are not authorized to approve this leave");
         }
 
-        return (double) totalDays;
+        if (application.getStatus() != LeaveStatus.PENDING) {
+            throw new BadRequestException("Leave application is not in pending status");
+        }
     }
 
-    private void updateLeaveBalanceOnApproval(LeaveApplication application) {
-        int currentYear = LocalDate.now().getYear();
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeAndYearAndDeletedFalse(
-                application.getEmployee().getId(), application.getLeaveType(), currentYear).orElse(null);
+    private void checkHrCanDecide(LeaveApplication application, Long companyId) {
+        // Validate company access
+        if (!application.getEmployee().getCompany().getId().equals(companyId)) {
+            throw new BadRequestException("Access denied");
+        }
 
-        if (balance != null) {
-            balance.setPending(balance.getPending() - application.getNumberOfDays());
-            balance.setUsed(balance.getUsed() + application.getNumberOfDays());
-            balance.setAvailable(balance.getTotalQuota() - balance.getUsed() - balance.getPending());
-            leaveBalanceRepository.save(balance);
+        if (application.getStatus() != LeaveStatus.PENDING) {
+            throw new BadRequestException("Leave application is not in pending status");
+        }
+
+        if (!application.getRequiresHrApproval()) {
+            throw new BadRequestException("This leave application does not require HR approval");
+        }
+
+        if (application.getApprovedByManager() == null) {
+            throw new BadRequestException("Leave must be approved by manager first");
         }
     }
 
-    private void revertPendingBalance(LeaveApplication application) {
-        int currentYear = LocalDate.now().getYear();
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeAndYearAndDeletedFalse(
-                application.getEmployee().getId(), application.getLeaveType(), currentYear).orElse(null);
+    private BulkLeaveApprovalResponse processBulkDecision(BulkLeaveApprovalRequest request, UserPrincipal currentUser,
+                                                          boolean managerStage) {
+        List<Long> ids = request.getApplicationIds().stream().distinct().toList();
+        Map<Long, LeaveApplication> applications = leaveApplicationRepository.findAllByIdWithEmployee(ids).stream()
+                .collect(Collectors.toMap(LeaveApplication::getId, Function.identity()));
+        Employee approver = employeeRepository.findByIdAndDeletedFalse(currentUser.getId())
+                .orElseThrow(() -> new ResourceNotFoundException(managerStage ? "Manager not found" : "HR not found"));
+        LocalDate today = LocalDate.now();
+
+        List<BulkLeaveApprovalResult> results = new ArrayList<>(ids.size());
+        List<LeaveApplication> decided = new ArrayList<>();
+
+        for (Long id : ids) {
+            LeaveApplication application = applications.get(id);
+            try {
+                if (application == null) {
+                    throw new ResourceNotFoundException("Leave application not found");
+                }
+                if (managerStage) {
+                    checkManagerCanDecide(application, currentUser.getId());
+                } else {
+                    checkHrCanDecide(application, currentUser.getCompanyId());
+                }
+            } catch (BadRequestException | ResourceNotFoundException ex) {
+                results.add(BulkLeaveApprovalResult.builder()
+                        .applicationId(id)
+                        .success(false)
+                        .status(application != null ? application.getStatus() : null)
+                        .message(ex.getMessage())
+                        .build());
+                continue;
+            }
+
+            if (!request.getApproved()) {
+                application.setStatus(LeaveStatus.REJECTED);
+                application.setRejectionReason(request.getReason());
+                application.setRejectionDate(today);
+            } else if (managerStage) {
+                application.setApprovedByManager(approver);
+                application.setManagerApprovalDate(today);
+                // Leaves that need HR approval stay pending
+                if (!application.getRequiresHrApproval()) {
+                    application.setStatus(LeaveStatus.APPROVED);
+                }
+            } else {
+                application.setApprovedByHr(approver);
+                application.setHrApprovalDate(today);
+                application.setStatus(LeaveStatus.APPROVED);
+            }
+
+            decided.add(application);
+            results.add(BulkLeaveApprovalResult.builder()
+                    .applicationId(id)
+                    .success(true)
+                    .status(application.getStatus())
+                    .build());
+        }
 
-        if (balance != null) {
-            balance.setPending(balance.getPending() - application.getNumberOfDays());
-            balance.setAvailable(balance.getTotalQuota() - balance.getUsed() - balance.getPending());
-            leaveBalanceRepository.save(balance);
+        leaveApplicationRepository.saveAll(decided);
+        applyBalanceDecisions(decided);
+        if (!decided.isEmpty()) {
+            reportCacheService.dataChanged(currentUser.getCompanyId());
         }
+        decided.stream()
+                .filter(application -> application.getStatus() == LeaveStatus.APPROVED)
+                .forEach(application -> publishToBoard(application, true));
+
+        int succeeded = decided.size();
+        return BulkLeaveApprovalResponse.builder()
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
     }
 
-    private void revertApprovedBalance(LeaveApplication application) {
+    private void applyBalanceDecisions(List<LeaveApplication> decided) {
+        if (decided.isEmpty()) {
+            return;
+        }
+
         int currentYear = LocalDate.now().getYear();
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeAndYearAndDeletedFalse(
-                application.getEmployee().getId(), application.getLeaveType(), currentYear).orElse(null);
+        Set<Long> employeeIds = decided.stream()
+                .map(application -> application.getEmployee().getId())
+                .collect(Collectors.toSet());
+        Map<BalanceKey, Long> balanceIds = leaveBalanceRepository.findKeysByEmployeeIdsAndYear(employeeIds, currentYear)
+                .stream()
+                .collect(Collectors.toMap(
+                        view -> new BalanceKey(view.getEmployeeId(), view.getLeaveType()),
+                        LeaveBalanceRepository.BalanceKeyView::getId));
+
+        // Summed per balance row and ordered by id so concurrent batches lock rows in the same order
+        Map<Long, double[]> totals = new TreeMap<>();
+        List<LeaveBalanceLedgerEntry> ledgerEntries = new ArrayList<>();
+        for (LeaveApplication application : decided) {
+            Long employeeId = application.getEmployee().getId();
+            Long balanceId = balanceIds.get(new BalanceKey(employeeId, application.getLeaveType()));
+            if (balanceId == null) {
+                continue;
+            }
+
+            double days = application.getNumberOfDays();
+            if (application.getStatus() == LeaveStatus.APPROVED) {
+                double[] total = totals.computeIfAbsent(balanceId, key -> new double[2]);
+                total[0] -= days;
+                total[1] += days;
+                ledgerEntries.add(leaveLedgerService.entry(employeeId, application.getLeaveType(), currentYear,
+                        LeaveMovementType.APPROVE, 0, days, -days, application));
+            } else if (application.getStatus() == LeaveStatus.REJECTED) {
+                totals.computeIfAbsent(balanceId, key -> new double[2])[0] -= days;
+                ledgerEntries.add(leaveLedgerService.entry(employeeId, application.getLeaveType(), currentYear,
+                        LeaveMovementType.REJECT, 0, 0, -days, application));
+            }
+        }
+
+        List<Long> refused = leaveBalanceRepository.applyDeltas(totals.entrySet().stream()
+                .map(entry -> new BalanceDelta(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+                .toList());
+        if (!refused.isEmpty()) {
+            // Rolls back every decision in the batch; the balances moved underneath it
+            throw new BadRequestException("Leave balance changed while the decisions were applied, please retry");
+        }
+        leaveLedgerService.recordAll(ledgerEntries);
+    }
+
+    private record BalanceKey(Long employeeId, LeaveType leaveType) {
+    }
+
+    private boolean isOverlapViolation(DataIntegrityViolationException ex) {
+        String message = ex.getMostSpecificCause().getMessage();
+        return message != null && message.contains(LeaveOverlapConstraintInitializer.CONSTRAINT_NAME);
+    }
+
+    private double calculateLeaveDays(Employee employee, LocalDate startDate, LocalDate endDate, boolean isHalfDay) {
+        long workingDays = workingDayCalendarService.countWorkingDays(
+                employee.getCompany().getId(), employee.getWorkLocation(), startDate, endDate);
+
+        if (isHalfDay) {
+            return workingDays > 0 ? 0.5 : 0;
+        }
+
+        return (double) workingDays;
+    }
+
+    private void updateLeaveBalanceOnApproval(LeaveApplication application) {
+        int year = LocalDate.now().getYear();
+        double days = application.getNumberOfDays();
+        if (leaveBalanceRepository.confirmPending(application.getEmployee().getId(), application.getLeaveType(),
+                year, days, LocalDateTime.now()) > 0) {
+            leaveLedgerService.record(application.getEmployee().getId(), application.getLeaveType(), year,
+                    LeaveMovementType.APPROVE, 0, days, -days, application);
+        }
+    }
+
+    private void revertPendingBalance(LeaveApplication application, LeaveMovementType movementType) {
+        int year = LocalDate.now().getYear();
+        double days = application.getNumberOfDays();
+        if (leaveBalanceRepository.releasePending(application.getEmployee().getId(), application.getLeaveType(),
+                year, days, LocalDateTime.now()) > 0) {
+            leaveLedgerService.record(application.getEmployee().getId(), application.getLeaveType(), year,
+                    movementType, 0, 0, -days, application);
+        }
+    }
 
-        if (balance != null) {
-            balance.setUsed(balance.getUsed() - application.getNumberOfDays());
-            balance.setAvailable(balance.getTotalQuota() - balance.getUsed() - balance.getPending());
-            leaveBalanceRepository.save(balance);
+    private void publishToBoard(LeaveApplication application, boolean onLeave) {
+        Employee employee = application.getEmployee();
+        attendanceBoardService.leaveChanged(employee.getCompany().getId(), employee.getId(),
+                application.getStartDate(), application.getEndDate(), onLeave);
+    }
+
+    private void revertApprovedBalance(LeaveApplication application) {
+        int year = LocalDate.now().getYear();
+        double days = application.getNumberOfDays();
+        if (leaveBalanceRepository.releaseUsed(application.getEmployee().getId(), application.getLeaveType(),
+                year, days, LocalDateTime.now()) > 0) {
+            leaveLedgerService.record(application.getEmployee().getId(), application.getLeaveType(), year,
+                    LeaveMovementType.CANCEL, 0, -days, 0, application);
         }
     }
 
@@ -0,0 +1,193 @@
+package com.leavemarker.service;
+
+import com.leavemarker.config.BoundedExecutors;
+import com.leavemarker.dto.leavebalance.BalanceInitializationJobResponse;
+import com.leavemarker.entity.BalanceInitializationRun;
+import com.leavemarker.enums.EmployeeStatus;
+import com.leavemarker.enums.JobStatus;
+import com.leavemarker.exception.ResourceNotFoundException;
+import com.leavemarker.exception.ServiceUnavailableException;
+import com.leavemarker.repository.BalanceInitializationRunRepository;
+import com.leavemarker.repository.CompanyRepository;
+import com.leavemarker.repository.EmployeeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Runs balance initialization for large companies in the background. Employees are processed in id
+ * order in fixed-size chunks, each chunk being one set-based insert that commits together with the run's
+ * checkpoint, so progress is visible while the job runs and any replica can answer a poll.
+ * Starting again while a run for the same company and year is unfinished resumes that run after its
+ * last committed chunk, which is how a run interrupted by a crash or failure is picked up.
+ * Runs hold a per-company cluster lock, so two replicas never work on the same company at once.
+ * Finished runs are deleted some time after completion; rerunning is safe because existing balances
+ * are skipped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveBalanceInitializationService {
+
+    public static final String JOB_NAME = "balance-initialization";
+
+    private static final int RETRY_AFTER_SECONDS = 30;
+
+    private final LeaveBalanceService leaveBalanceService;
+    private final EmployeeRepository employeeRepository;
+    private final CompanyRepository companyRepository;
+    private final BalanceInitializationRunRepository runRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterJobRunner jobRunner;
+
+    @Value("${leave.initialization.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${leave.initialization.job-ttl-minutes:60}")
+    private long jobTtlMinutes;
+
+    private final ThreadPoolExecutor initializationExecutor =
+            BoundedExecutors.newFixedPool("balance-initialization", 2, 16);
+
+    @PreDestroy
+    void shutdown() {
+        initializationExecutor.shutdownNow();
+    }
+
+    /**
+     * Queues initialization of the company's balances for the year, or resumes an unfinished run,
+     * and returns a handle to poll.
+     */
+    public BalanceInitializationJobResponse start(Long companyId, Integer year) {
+        BalanceInitializationRun run = transactionTemplate.execute(status -> {
+            runRepository.deleteCompletedBefore(LocalDateTime.now().minusMinutes(jobTtlMinutes));
+            return prepareRun(companyId, year);
+        });
+
+        Long runId = run.getId();
+        try {
+            // Skipped when another replica holds the lock; it is already running this company's initialization
+            initializationExecutor.execute(() -> jobRunner.runForCompany(JOB_NAME, companyId,
+                    () -> execute(runId, companyId, year)));
+        } catch (RejectedExecutionException ex) {
+            // The run stays unfinished, so the retry resumes it
+            throw new ServiceUnavailableException("Too many balance initializations in progress, please retry shortly",
+                    RETRY_AFTER_SECONDS);
+        }
+        return toResponse(run);
+    }
+
+    public BalanceInitializationJobResponse getJob(String jobId, Long companyId) {
+        return runRepository.findByJobIdAndCompanyIdAndDeletedFalse(jobId, companyId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Balance initialization job not found"));
+    }
+
+    private BalanceInitializationRun prepareRun(Long companyId, Integer year) {
+        BalanceInitializationRun run = runRepository
+                .findFirstByCompanyIdAndYearAndStatusNotAndDeletedFalseOrderByIdDesc(companyId, year, JobStatus.COMPLETED)
+                .orElseGet(() -> BalanceInitializationRun.builder()
+                        .jobId(UUID.randomUUID().toString())
+                        .company(companyRepository.getReferenceById(companyId))
+                        .year(year)
+                        .status(JobStatus.RUNNING)
+                        .totalEmployees(employeeRepository.countByCompanyIdAndStatusAndDeletedFalse(
+                                companyId, EmployeeStatus.ACTIVE))
+                        .startedAt(LocalDateTime.now())
+                        .build());
+
+        if (run.getStatus() == JobStatus.FAILED) {
+            run.setStatus(JobStatus.RUNNING);
+            run.setErrorMessage(null);
+            run.setCompletedAt(null);
+        }
+        return runRepository.save(run);
+    }
+
+    /**
+     * Runs the remaining chunks and returns the number of employees processed. The caller holds the
+     * cluster lock for {@link #JOB_NAME}.
+     */
+    private int execute(Long runId, Long companyId, Integer year) {
+        try {
+            boolean more = true;
+            while (more) {
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> processChunk(runId, companyId, year)));
+            }
+
+            BalanceInitializationRun run = transactionTemplate.execute(status -> {
+                BalanceInitializationRun finished = runRepository.findById(runId).orElseThrow();
+                if (finished.getStatus() == JobStatus.RUNNING) {
+                    finished.setStatus(JobStatus.COMPLETED);
+                    finished.setCompletedAt(LocalDateTime.now());
+                }
+                return runRepository.save(finished);
+            });
+            log.info("Initialized {} leave balances for company {} and year {}", run.getBalancesCreated(), companyId, year);
+            return run.getProcessedEmployees().intValue();
+        } catch (RuntimeException ex) {
+            // Rethrown so the job run is recorded as failed too, which also logs it
+            fail(runId, ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+            throw ex;
+        }
+    }
+
+    /**
+     * Initializes the next chunk of employees and advances the checkpoint in the same transaction.
+     * Returns whether more employees may remain.
+     */
+    private boolean processChunk(Long runId, Long companyId, Integer year) {
+        BalanceInitializationRun run = runRepository.findById(runId).orElseThrow();
+        if (run.getStatus() != JobStatus.RUNNING) {
+            return false;
+        }
+
+        List<Long> ids = employeeRepository.findActiveIdsAfter(companyId, run.getLastEmployeeId(),
+                PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return false;
+        }
+
+        long toId = ids.get(ids.size() - 1);
+        int created = leaveBalanceService.initializeCompanyBalances(companyId, year, run.getLastEmployeeId(), toId);
+        run.setLastEmployeeId(toId);
+        run.setProcessedEmployees(run.getProcessedEmployees() + ids.size());
+        run.setBalancesCreated(run.getBalancesCreated() + created);
+        runRepository.save(run);
+        return ids.size() == chunkSize;
+    }
+
+    private void fail(Long runId, String message) {
+        transactionTemplate.executeWithoutResult(status -> {
+            BalanceInitializationRun run = runRepository.findById(runId).orElseThrow();
+            run.setStatus(JobStatus.FAILED);
+            run.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+            run.setCompletedAt(LocalDateTime.now());
+            runRepository.save(run);
+        });
+    }
+
+    private BalanceInitializationJobResponse toResponse(BalanceInitializationRun run) {
+        return BalanceInitializationJobResponse.builder()
+                .jobId(run.getJobId())
+                .year(run.getYear())
+                .status(run.getStatus())
+                .totalEmployees(run.getTotalEmployees())
+                .processedEmployees(run.getProcessedEmployees())
+                .balancesCreated(run.getBalancesCreated())
+                .errorMessage(run.getErrorMessage())
+                .startedAt(run.getStartedAt())
+                .completedAt(run.getCompletedAt())
+                .build();
+    }
+}
@@ -1,5 +1,8 @@
 package com.leavemarker.service;
 
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,21 +12,29 @@ import org.springframework.transaction.annotation.Transactional;
 import com.leavemarker.entity.Employee;
 import com.leavemarker.entity.LeaveBalance;
 import com.leavemarker.entity.LeavePolicy;
+import com.leavemarker.enums.LeaveMovementType;
 import com.leavemarker.enums.LeaveType;
+import com.leavemarker.exception.BadRequestException;
 import com.leavemarker.exception.ResourceNotFoundException;
 import com.leavemarker.repository.EmployeeRepository;
+import com.leavemarker.repository.LeaveAccrualRunRepository;
 import com.leavemarker.repository.LeaveBalanceRepository;
 import com.leavemarker.repository.LeavePolicyRepository;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class LeaveBalanceService {
 
     private final LeaveBalanceRepository leaveBalanceRepository;
     private final LeavePolicyRepository leavePolicyRepository;
     private final EmployeeRepository employeeRepository;
+    private final LeaveLedgerService leaveLedgerService;
+    private final LeaveAccrualRunRepository leaveAccrualRunRepository;
+    private final ReportCacheService reportCacheService;
 
     @Transactional
     public void initializeLeaveBalanceForEmployee(Long employeeId, Integer year) {
@@ -49,68 +60,58 @@ public class LeaveBalanceService {
                         .carriedForward(0.0)
                         .build();
                 leaveBalanceRepository.save(balance);
+                leaveLedgerService.record(employeeId, policy.getLeaveType(), year, LeaveMovementType.OPENING,
+                        policy.getAnnualQuota().doubleValue(), 0, 0, null);
             }
         }
+        reportCacheService.dataChanged(employee.getCompany().getId());
     }
 
+    /**
+     * Creates the year's balances for every active employee of the company in one statement.
+     * Returns the number of balances created; employees who already have them are skipped.
+     */
     @Transactional
-    public void processMonthlyAccrual(Long companyId, Integer year, Integer month) {
-        List<LeavePolicy> policies = leavePolicyRepository
-                .findByCompanyIdAndActiveAndDeletedFalse(companyId, true);
+    public int initializeCompanyBalances(Long companyId, Integer year) {
+        return initializeCompanyBalances(companyId, year, 0L, Long.MAX_VALUE);
+    }
 
-        for (LeavePolicy policy : policies) {
-            if (policy.getMonthlyAccrual() > 0) {
-                List<LeaveBalance> balances = leaveBalanceRepository
-                        .findByEmployeeCompanyIdAndYearAndDeletedFalse(companyId, year);
-
-                for (LeaveBalance balance : balances) {
-                    if (balance.getLeaveType() == policy.getLeaveType()) {
-                        double newTotal = balance.getTotalQuota() + policy.getMonthlyAccrual();
-                        balance.setTotalQuota(newTotal);
-                        balance.setAvailable(newTotal - balance.getUsed() - balance.getPending());
-                        leaveBalanceRepository.save(balance);
-                    }
-                }
-            }
+    /**
+     * Same as {@link #initializeCompanyBalances(Long, Integer)} limited to employee ids in
+     * ({@code afterEmployeeId}, {@code toEmployeeId}], for chunked runs.
+     */
+    @Transactional
+    public int initializeCompanyBalances(Long companyId, Integer year, Long afterEmployeeId, Long toEmployeeId) {
+        Year target = Year.of(year);
+        int created = leaveBalanceRepository.initializeBalances(companyId, year,
+                target.atDay(1), target.atMonth(12).atEndOfMonth(), target.length(),
+                afterEmployeeId, toEmployeeId, LocalDateTime.now());
+        if (created > 0) {
+            reportCacheService.dataChanged(companyId);
         }
+        return created;
     }
 
+    /**
+     * Accrues one month of leave for the whole company in a single statement. A second call for the
+     * same company and month does nothing. Returns the number of balances credited.
+     */
     @Transactional
-    public void processYearEndCarryForward(Long companyId, Integer currentYear) {
-        Integer nextYear = currentYear + 1;
-        List<LeavePolicy> policies = leavePolicyRepository
-                .findByCompanyIdAndActiveAndDeletedFalse(companyId, true);
-
-        for (LeavePolicy policy : policies) {
-            if (policy.getCarryForward()) {
-                List<LeaveBalance> currentYearBalances = leaveBalanceRepository
-                        .findByEmployeeCompanyIdAndYearAndDeletedFalse(companyId, currentYear);
-
-                for (LeaveBalance currentBalance : currentYearBalances) {
-                    if (currentBalance.getLeaveType() == policy.getLeaveType()) {
-                        double availableToCarry = Math.min(
-                                currentBalance.getAvailable(),
-                                policy.getMaxCarryForward().doubleValue()
-                        );
-
-                        Optional<LeaveBalance> nextYearBalance = leaveBalanceRepository
-                                .findByEmployeeIdAndLeaveTypeAndYearAndDeletedFalse(
-                                        currentBalance.getEmployee().getId(),
-                                        policy.getLeaveType(),
-                                        nextYear
-                                );
-
-                        if (nextYearBalance.isPresent()) {
-                            LeaveBalance balance = nextYearBalance.get();
-                            balance.setCarriedForward(availableToCarry);
-                            balance.setTotalQuota(balance.getTotalQuota() + availableToCarry);
-                            balance.setAvailable(balance.getAvailable() + availableToCarry);
-                            leaveBalanceRepository.save(balance);
-                        }
-                    }
-                }
-            }
+    public int processMonthlyAccrual(Long companyId, Integer year, Integer month) {
+        LocalDateTime now = LocalDateTime.now();
+        if (leaveAccrualRunRepository.claim(companyId, year, month, now) == 0) {
+            log.info("Accrual for company {} {}-{} already processed, skipping", companyId, year, month);
+            return 0;
         }
+
+        YearMonth period = YearMonth.of(year, month);
+        int credited = leaveBalanceRepository.accrueMonthly(companyId, year,
+                period.atDay(1), period.atEndOfMonth(), period.lengthOfMonth(), now);
+        leaveAccrualRunRepository.recordResult(companyId, year, month, credited);
+        reportCacheService.dataChanged(companyId);
+
+        log.info("Accrued leave for {} balances of company {} for {}", credited, companyId, period);
+        return credited;
     }
 
     public LeaveBalance getLeaveBalance(Long employeeId, LeaveType leaveType, Integer year) {
@@ -139,32 +140,50 @@ public class LeaveBalanceService {
 
     @Transactional
     public void deductLeave(Long employeeId, LeaveType leaveType, Integer year, Double days, boolean isPending) {
-        LeaveBalance balance = getLeaveBalance(employeeId, leaveType, year);
-
+        int updated = isPending
+                ? leaveBalanceRepository.reservePending(employeeId, leaveType, year, days, LocalDateTime.now())
+                : leaveBalanceRepository.addUsed(employeeId, leaveType, year, days, LocalDateTime.now());
+        if (updated == 0) {
+            // Only a reservation can be refused for lack of days; otherwise the balance row is missing
+            LeaveBalance balance = isPending
+                    ? leaveBalanceRepository.findByEmployeeIdAndLeaveTypeAndYearAndDeletedFalse(employeeId, leaveType, year)
+                            .orElse(null)
+                    : null;
+            if (balance == null) {
+                throw new ResourceNotFoundException("Leave balance not found");
+            }
+            throw new BadRequestException("Insufficient leave balance. Available: " + balance.getAvailable() + " days");
+        }
         if (isPending) {
-            balance.setPending(balance.getPending() + days);
+            leaveLedgerService.record(employeeId, leaveType, year, LeaveMovementType.APPLY, 0, 0, days, null);
         } else {
-            balance.setUsed(balance.getUsed() + days);
+            leaveLedgerService.record(employeeId, leaveType, year, LeaveMovementType.ADJUSTMENT, 0, days, 0, null);
         }
-        balance.setAvailable(balance.getTotalQuota() - balance.getUsed() - balance.getPending());
-        leaveBalanceRepository.save(balance);
+        balancesChanged(employeeId);
     }
 
     @Transactional
     public void revertPendingLeave(Long employeeId, LeaveType leaveType, Integer year, Double days) {
-        LeaveBalance balance = getLeaveBalance(employeeId, leaveType, year);
-        balance.setPending(balance.getPending() - days);
-        balance.setAvailable(balance.getTotalQuota() - balance.getUsed() - balance.getPending());
-        leaveBalanceRepository.save(balance);
+        requireUpdated(leaveBalanceRepository.releasePending(employeeId, leaveType, year, days, LocalDateTime.now()));
+        leaveLedgerService.record(employeeId, leaveType, year, LeaveMovementType.CANCEL, 0, 0, -days, null);
+        balancesChanged(employeeId);
     }
 
     @Transactional
     public void approvePendingLeave(Long employeeId, LeaveType leaveType, Integer year, Double days) {
-        LeaveBalance balance = getLeaveBalance(employeeId, leaveType, year);
-        balance.setPending(balance.getPending() - days);
-        balance.setUsed(balance.getUsed() + days);
-        balance.setAvailable(balance.getTotalQuota() - balance.getUsed() - balance.getPending());
-        leaveBalanceRepository.save(balance);
+        requireUpdated(leaveBalanceRepository.confirmPending(employeeId, leaveType, year, days, LocalDateTime.now()));
+        leaveLedgerService.record(employeeId, leaveType, year, LeaveMovementType.APPROVE, 0, days, -days, null);
+        balancesChanged(employeeId);
+    }
+
+    private void balancesChanged(Long employeeId) {
+        employeeRepository.findCompanyIdById(employeeId).ifPresent(reportCacheService::dataChanged);
+    }
+
+    private void requireUpdated(int updated) {
+        if (updated == 0) {
+            throw new ResourceNotFoundException("Leave balance not found");
+        }
     }
 
     public Double calculateLOPDays(Long employeeId, Integer year, Integer month) {
@@ -0,0 +1,166 @@
+package com.leavemarker.service;
+
+import com.leavemarker.dto.leavebalance.LeaveBalanceAsOfResponse;
+import com.leavemarker.entity.LeaveApplication;
+import com.leavemarker.entity.LeaveBalanceLedgerEntry;
+import com.leavemarker.entity.LeaveBalanceSnapshot;
+import com.leavemarker.enums.LeaveMovementType;
+import com.leavemarker.enums.LeaveType;
+import com.leavemarker.repository.EmployeeRepository;
+import com.leavemarker.repository.LeaveBalanceLedgerRepository;
+import com.leavemarker.repository.LeaveBalanceLedgerRepository.LedgerTotals;
+import com.leavemarker.repository.LeaveBalanceSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only history of leave balance movements. Every change to a {@code LeaveBalance} row is
+ * recorded here in the same transaction, so past balances can be rebuilt from the latest snapshot
+ * plus the few entries after it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveLedgerService implements ApplicationRunner {
+
+    public static final String OPENING_BACKFILL_JOB = "ledger-opening-backfill";
+
+    private static final int WATERMARK_ATTEMPTS = 60;
+    private static final long WATERMARK_RETRY_DELAY_MS = 1_000;
+
+    private final LeaveBalanceLedgerRepository ledgerRepository;
+    private final LeaveBalanceSnapshotRepository snapshotRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ClusterJobRunner jobRunner;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Seeds opening entries before the first snapshot, so balances that predate the ledger are
+     * described in full from startup rather than from the next snapshot run. Only one replica runs it;
+     * the others skip it when they start at the same time.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        jobRunner.runGlobal(OPENING_BACKFILL_JOB,
+                () -> transactionTemplate.execute(status -> seedOpeningEntries(LocalDateTime.now())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long employeeId, LeaveType leaveType, Integer year, LeaveMovementType movementType,
+                       double quotaDelta, double usedDelta, double pendingDelta, LeaveApplication application) {
+        ledgerRepository.save(entry(employeeId, leaveType, year, movementType,
+                quotaDelta, usedDelta, pendingDelta, application));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<LeaveBalanceLedgerEntry> entries) {
+        ledgerRepository.batchInsert(entries);
+    }
+
+    public LeaveBalanceLedgerEntry entry(Long employeeId, LeaveType leaveType, Integer year,
+                                         LeaveMovementType movementType, double quotaDelta, double usedDelta,
+                                         double pendingDelta, LeaveApplication application) {
+        return LeaveBalanceLedgerEntry.builder()
+                .employee(employeeRepository.getReferenceById(employeeId))
+                .leaveType(leaveType)
+                .year(year)
+                .movementType(movementType)
+                .quotaDelta(quotaDelta)
+                .usedDelta(usedDelta)
+                .pendingDelta(pendingDelta)
+                .leaveApplication(application)
+                .build();
+    }
+
+    /**
+     * Balance as it stood at {@code asOf}: the latest snapshot taken by then plus the entries after it.
+     */
+    public LeaveBalanceAsOfResponse getBalanceAsOf(Long employeeId, LeaveType leaveType, Integer year,
+                                                   LocalDateTime asOf) {
+        Optional<LeaveBalanceSnapshot> snapshot = snapshotRepository
+                .findFirstByEmployeeIdAndLeaveTypeAndYearAndTakenAtLessThanEqualOrderByLastEntryIdDesc(
+                        employeeId, leaveType, year, asOf);
+
+        long afterEntryId = snapshot.map(LeaveBalanceSnapshot::getLastEntryId).orElse(0L);
+        LedgerTotals tail = ledgerRepository.sumAfter(employeeId, leaveType, year, afterEntryId, asOf);
+
+        double totalQuota = snapshot.map(LeaveBalanceSnapshot::getTotalQuota).orElse(0.0) + tail.getQuota();
+        double used = snapshot.map(LeaveBalanceSnapshot::getUsed).orElse(0.0) + tail.getUsed();
+        double pending = snapshot.map(LeaveBalanceSnapshot::getPending).orElse(0.0) + tail.getPending();
+
+        return LeaveBalanceAsOfResponse.builder()
+                .leaveType(leaveType)
+                .year(year)
+                .asOf(asOf)
+                .totalQuota(totalQuota)
+                .used(used)
+                .pending(pending)
+                .available(totalQuota - used - pending)
+                .build();
+    }
+
+    /**
+     * Folds the ledger entries added since the last run into new snapshots so balance reads only sum
+     * a short tail.
+     * Snapshots stop at the highest id below which every entry has committed: an entry that commits
+     * later with a lower id would otherwise fall behind the snapshot and never be read again.
+     * The watermark is taken between writers, so the run waits out long ones; if the ledger stays busy
+     * the run is skipped and the next one folds the entries in. Returns the number of snapshots written.
+     */
+    public int takeSnapshots() {
+        Long maxEntryId = findCommittedWatermark();
+        if (maxEntryId == null) {
+            return 0;
+        }
+
+        LocalDateTime takenAt = LocalDateTime.now();
+        Integer written = transactionTemplate.execute(status -> snapshotRepository.insertSnapshotsBetween(
+                snapshotRepository.findLastFoldedEntryId(), maxEntryId, takenAt));
+        log.info("Wrote {} leave balance snapshots up to ledger entry {}", written, maxEntryId);
+        return written != null ? written : 0;
+    }
+
+    // Null when the ledger is empty or never fell quiet long enough for the watermark to be taken
+    private Long findCommittedWatermark() {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Its own transaction, so the ledger lock is released before the snapshots are built
+                return transactionTemplate.execute(status -> ledgerRepository.findMaxCommittedId());
+            } catch (PessimisticLockingFailureException ex) {
+                if (attempt == WATERMARK_ATTEMPTS) {
+                    log.warn("Ledger stayed busy, skipping leave balance snapshots until the next run");
+                    return null;
+                }
+                sleepBeforeRetry();
+            }
+        }
+    }
+
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(WATERMARK_RETRY_DELAY_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ledger", ex);
+        }
+    }
+
+    private int seedOpeningEntries(LocalDateTime now) {
+        int seeded = ledgerRepository.backfillOpeningEntries(now);
+        if (seeded > 0) {
+            log.info("Seeded {} opening ledger entries from existing balances", seeded);
+        }
+        return seeded;
+    }
+}
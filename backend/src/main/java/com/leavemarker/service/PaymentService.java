@@ -49,6 +49,7 @@ public class PaymentService {
     private final RazorpayConfig razorpayConfig;
     private final RazorpayClient razorpayClient;
     private final SubscriptionService subscriptionService;
+    private final SubscriptionEntitlementService subscriptionEntitlementService;
 
     @Transactional(readOnly = true)
     public List<PaymentResponse> getCompanyPayments(Long companyId) {
@@ -211,6 +212,7 @@ public class PaymentService {
             subscription.setCurrentPeriodEnd(payment.getPeriodEnd());
             subscription.setEndDate(payment.getPeriodEnd());
             subscriptionRepository.save(subscription);
+            subscriptionEntitlementService.evict(payment.getCompany().getId());
 
             payment.setSubscription(subscription);
             paymentRepository.save(payment);
@@ -288,6 +290,7 @@ public class PaymentService {
                             subscription.setCurrentPeriodEnd(payment.getPeriodEnd());
                             subscription.setEndDate(payment.getPeriodEnd());
                             subscriptionRepository.save(subscription);
+                            subscriptionEntitlementService.evict(payment.getCompany().getId());
 
                             payment.setSubscription(subscription);
                         } else {
@@ -298,6 +301,7 @@ public class PaymentService {
                             subscription.setEndDate(payment.getPeriodEnd());
                             subscription.setStatus(SubscriptionStatus.ACTIVE);
                             subscriptionRepository.save(subscription);
+                            subscriptionEntitlementService.evict(payment.getCompany().getId());
                         }
 
                         log.info("Payment captured via webhook for transaction: {}", payment.getTransactionId());
@@ -1,13 +1,11 @@
 package com.leavemarker.service;
 
-import com.leavemarker.entity.Plan;
-import com.leavemarker.entity.Subscription;
-import com.leavemarker.enums.SubscriptionStatus;
+import com.leavemarker.enums.PlanFeature;
 import com.leavemarker.exception.BadRequestException;
 import com.leavemarker.repository.EmployeeRepository;
 import com.leavemarker.repository.HolidayRepository;
 import com.leavemarker.repository.LeavePolicyRepository;
-import com.leavemarker.repository.SubscriptionRepository;
+import com.leavemarker.service.SubscriptionEntitlementService.Entitlements;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -15,7 +13,7 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class PlanValidationService {
 
-    private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionEntitlementService subscriptionEntitlementService;
     private final EmployeeRepository employeeRepository;
     private final LeavePolicyRepository leavePolicyRepository;
     private final HolidayRepository holidayRepository;
@@ -24,16 +22,15 @@ public class PlanValidationService {
      * Validates if the company can add more employees based on their plan
      */
     public void validateEmployeeLimit(Long companyId) {
-        Subscription subscription = getActiveSubscription(companyId);
-        Plan plan = subscription.getPlan();
+        Entitlements entitlements = getActiveEntitlements(companyId);
 
         long currentEmployeeCount = employeeRepository.countByCompanyIdAndDeletedFalse(companyId);
 
         // For FREE plan, max 10 employees
-        if (plan.getMaxEmployees() > 0 && currentEmployeeCount >= plan.getMaxEmployees()) {
+        if (entitlements.maxEmployees() > 0 && currentEmployeeCount >= entitlements.maxEmployees()) {
             throw new BadRequestException(
                     String.format("Employee limit reached. Your current plan allows up to %d employees. Please upgrade to add more employees.",
-                            plan.getMaxEmployees()));
+                            entitlements.maxEmployees()));
         }
     }
 
@@ -41,17 +38,16 @@ public class PlanValidationService {
      * Validates if the company can add more leave policies based on their plan
      */
     public void validateLeavePolicyLimit(Long companyId) {
-        Subscription subscription = getActiveSubscription(companyId);
-        Plan plan = subscription.getPlan();
+        Entitlements entitlements = getActiveEntitlements(companyId);
 
         // For FREE plan, only 1 leave policy allowed
-        if (!plan.getMultipleLeavePolicies()) {
+        if (!entitlements.has(PlanFeature.MULTIPLE_LEAVE_POLICIES)) {
             long activePolicyCount = leavePolicyRepository.countByCompanyIdAndActiveAndDeletedFalse(companyId, true);
 
-            if (activePolicyCount >= plan.getMaxLeavePolicies()) {
+            if (activePolicyCount >= entitlements.maxLeavePolicies()) {
                 throw new BadRequestException(
                         String.format("Leave policy limit reached. Your current plan allows only %d active leave policy. Please upgrade to Mid Tier plan for multiple leave policies.",
-                                plan.getMaxLeavePolicies()));
+                                entitlements.maxLeavePolicies()));
             }
         }
         // MID_TIER allows unlimited policies (no check needed)
@@ -61,17 +57,16 @@ public class PlanValidationService {
      * Validates if the company can add more holidays based on their plan
      */
     public void validateHolidayLimit(Long companyId) {
-        Subscription subscription = getActiveSubscription(companyId);
-        Plan plan = subscription.getPlan();
+        Entitlements entitlements = getActiveEntitlements(companyId);
 
         // For FREE plan, max 6 holidays
-        if (!plan.getUnlimitedHolidays()) {
+        if (!entitlements.has(PlanFeature.UNLIMITED_HOLIDAYS)) {
             long holidayCount = holidayRepository.countByCompanyIdAndDeletedFalse(companyId);
 
-            if (holidayCount >= plan.getMaxHolidays()) {
+            if (holidayCount >= entitlements.maxHolidays()) {
                 throw new BadRequestException(
                         String.format("Holiday limit reached. Your current plan allows up to %d holidays. Please upgrade to Mid Tier plan for unlimited holidays.",
-                                plan.getMaxHolidays()));
+                                entitlements.maxHolidays()));
             }
         }
         // MID_TIER allows unlimited holidays (no check needed)
@@ -81,10 +76,9 @@ public class PlanValidationService {
      * Validates if the company has access to attendance management
      */
     public void validateAttendanceManagementAccess(Long companyId) {
-        Subscription subscription = getActiveSubscription(companyId);
-        Plan plan = subscription.getPlan();
+        Entitlements entitlements = getActiveEntitlements(companyId);
 
-        if (!plan.getAttendanceManagement()) {
+        if (!entitlements.has(PlanFeature.ATTENDANCE_MANAGEMENT)) {
             throw new BadRequestException(
                     "Attendance management is not available in your current plan. Please upgrade to Mid Tier plan to access this feature.");
         }
@@ -94,10 +88,9 @@ public class PlanValidationService {
      * Validates if the company has access to reports download
      */
     public void validateReportsDownloadAccess(Long companyId) {
-        Subscription subscription = getActiveSubscription(companyId);
-        Plan plan = subscription.getPlan();
+        Entitlements entitlements = getActiveEntitlements(companyId);
 
-        if (!plan.getReportsDownload() && !subscription.getHasReportDownloadAddon()) {
+        if (!entitlements.has(PlanFeature.REPORTS_DOWNLOAD) && !entitlements.reportDownloadAddon()) {
             throw new BadRequestException(
                     "Report downloads are not available in your current plan. Please upgrade to Mid Tier plan or purchase the report download add-on.");
         }
@@ -107,21 +100,23 @@ public class PlanValidationService {
      * Validates if the company has access to attendance rate analytics
      */
     public void validateAttendanceRateAnalyticsAccess(Long companyId) {
-        Subscription subscription = getActiveSubscription(companyId);
-        Plan plan = subscription.getPlan();
+        Entitlements entitlements = getActiveEntitlements(companyId);
 
-        if (!plan.getAttendanceRateAnalytics()) {
+        if (!entitlements.has(PlanFeature.ATTENDANCE_RATE_ANALYTICS)) {
             throw new BadRequestException(
                     "Attendance rate analytics is not available in your current plan. Please upgrade to Mid Tier plan to access this feature.");
         }
     }
 
     /**
-     * Gets the active subscription for a company
+     * Gets the cached entitlements of the company's active subscription
      * Throws exception if no active subscription found
      */
-    private Subscription getActiveSubscription(Long companyId) {
-        return subscriptionRepository.findByCompanyIdAndStatus(companyId, SubscriptionStatus.ACTIVE)
-                .orElseThrow(() -> new BadRequestException("No active subscription found. Please subscribe to a plan first."));
+    private Entitlements getActiveEntitlements(Long companyId) {
+        Entitlements entitlements = subscriptionEntitlementService.get(companyId);
+        if (!entitlements.hasSubscription()) {
+            throw new BadRequestException("No active subscription found. Please subscribe to a plan first.");
+        }
+        return entitlements;
     }
 }
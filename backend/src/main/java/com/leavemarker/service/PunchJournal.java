@@ -0,0 +1,203 @@
+package com.leavemarker.service;
+
+import com.leavemarker.enums.WorkType;
+import com.leavemarker.repository.AttendanceRepositoryCustom.Punch;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped append-only journal of accepted punches that have not reached the database yet.
+ * Records are fixed-size and checksummed. The header holds the sequence of the last flushed record and
+ * a generation number; once everything is flushed and the file is half full, the generation is bumped
+ * and writing restarts at the top, so stale records from the previous generation are never replayed.
+ * Writes survive a process crash as soon as {@link #append} returns; surviving power loss as well
+ * needs {@code syncOnAppend}.
+ */
+final class PunchJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x50554e43;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 40;
+    private static final int CHECKSUMMED_BYTES = 36;
+
+    private static final int GENERATION_OFFSET = 8;
+    private static final int FLUSHED_OFFSET = 16;
+
+    private static final WorkType[] WORK_TYPES = WorkType.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean syncOnAppend;
+
+    // Appended but not yet flushed, in sequence order
+    private final ArrayDeque<Entry> unflushed = new ArrayDeque<>();
+
+    private int generation;
+    private int position;
+    private long lastSequence;
+
+    private PunchJournal(FileChannel channel, MappedByteBuffer buffer, int capacity, boolean syncOnAppend) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.syncOnAppend = syncOnAppend;
+    }
+
+    /**
+     * Opens or creates the journal and loads every record that was not flushed before the last shutdown.
+     */
+    static PunchJournal open(Path file, int capacity, boolean syncOnAppend) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) capacity * RECORD_SIZE);
+
+        PunchJournal journal = new PunchJournal(channel, buffer, capacity, syncOnAppend);
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Appends the punch and queues it for flushing. Returns false when the journal is full.
+     */
+    synchronized boolean append(Punch punch) {
+        if (position == capacity) {
+            return false;
+        }
+
+        long sequence = lastSequence + 1;
+        int offset = HEADER_SIZE + position * RECORD_SIZE;
+        buffer.putInt(offset, generation);
+        buffer.putLong(offset + 4, sequence);
+        buffer.putLong(offset + 12, punch.employeeId());
+        buffer.putInt(offset + 20, (int) punch.date().toEpochDay());
+        buffer.putLong(offset + 24, punch.time().toNanoOfDay());
+        buffer.put(offset + 32, (byte) (punch.punchIn() ? 1 : 0));
+        buffer.put(offset + 33, (byte) (punch.workType() != null ? punch.workType().ordinal() + 1 : 0));
+        buffer.putShort(offset + 34, (short) 0);
+        buffer.putInt(offset + CHECKSUMMED_BYTES, checksum(offset));
+        if (syncOnAppend) {
+            buffer.force(offset, RECORD_SIZE);
+        }
+
+        position++;
+        lastSequence = sequence;
+        unflushed.addLast(new Entry(sequence, punch));
+        return true;
+    }
+
+    /**
+     * Returns up to {@code max} of the oldest unflushed punches without removing them.
+     */
+    synchronized List<Entry> peek(int max) {
+        List<Entry> batch = new ArrayList<>(Math.min(max, unflushed.size()));
+        for (Entry entry : unflushed) {
+            if (batch.size() == max) {
+                break;
+            }
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    /**
+     * Records that every punch up to and including {@code sequence} is in the database.
+     */
+    synchronized void markFlushed(long sequence) {
+        while (!unflushed.isEmpty() && unflushed.peekFirst().sequence() <= sequence) {
+            unflushed.removeFirst();
+        }
+        buffer.putLong(FLUSHED_OFFSET, sequence);
+
+        if (unflushed.isEmpty() && position > capacity / 2) {
+            generation++;
+            buffer.putInt(GENERATION_OFFSET, generation);
+            position = 0;
+        }
+        if (syncOnAppend) {
+            buffer.force(0, HEADER_SIZE);
+        }
+    }
+
+    synchronized List<Entry> pending() {
+        return new ArrayList<>(unflushed);
+    }
+
+    synchronized int size() {
+        return unflushed.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void recover() {
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, 1);
+            buffer.putInt(GENERATION_OFFSET, 0);
+            buffer.putLong(FLUSHED_OFFSET, 0L);
+            buffer.force(0, HEADER_SIZE);
+            return;
+        }
+
+        generation = buffer.getInt(GENERATION_OFFSET);
+        long flushed = buffer.getLong(FLUSHED_OFFSET);
+        long previous = 0L;
+
+        // The first record that is torn, from an older generation or out of sequence marks the end
+        while (position < capacity) {
+            int offset = HEADER_SIZE + position * RECORD_SIZE;
+            long sequence = buffer.getLong(offset + 4);
+            if (buffer.getInt(offset) != generation || sequence <= previous
+                    || buffer.getInt(offset + CHECKSUMMED_BYTES) != checksum(offset)) {
+                break;
+            }
+
+            if (sequence > flushed) {
+                unflushed.addLast(new Entry(sequence, read(offset)));
+            }
+            previous = sequence;
+            position++;
+        }
+        lastSequence = Math.max(flushed, previous);
+    }
+
+    private Punch read(int offset) {
+        int workType = buffer.get(offset + 33);
+        return new Punch(
+                buffer.getLong(offset + 12),
+                LocalDate.ofEpochDay(buffer.getInt(offset + 20)),
+                LocalTime.ofNanoOfDay(buffer.getLong(offset + 24)),
+                buffer.get(offset + 32) == 1,
+                workType > 0 ? WORK_TYPES[workType - 1] : null);
+    }
+
+    private int checksum(int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, CHECKSUMMED_BYTES));
+        return (int) crc.getValue();
+    }
+
+    record Entry(long sequence, Punch punch) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.leavemarker.service;
+
+import com.leavemarker.entity.Employee;
+import com.leavemarker.entity.RefreshToken;
+import com.leavemarker.enums.EmployeeStatus;
+import com.leavemarker.exception.UnauthorizedException;
+import com.leavemarker.repository.RefreshTokenRepository;
+import com.leavemarker.security.JwtTokenProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Issues and rotates opaque refresh tokens. Only a SHA-256 of each token is stored, looked up
+ * through a unique index, so exchanging one never touches the password hash.
+ * A token is single use: presenting a token that was already rotated revokes the whole family.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtTokenProvider tokenProvider;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /**
+     * Creates a new refresh token for the employee and returns its raw value.
+     */
+    @Transactional
+    public String issue(Employee employee) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = RefreshToken.builder()
+                .employee(employee)
+                .tokenHash(hash(rawToken))
+                .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(tokenProvider.getRefreshExpiration())))
+                .revoked(false)
+                .build();
+        refreshTokenRepository.save(refreshToken);
+
+        return rawToken;
+    }
+
+    /**
+     * Revokes the presented token and returns the employee it belonged to.
+     * The caller issues the replacement within the same transaction.
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Employee consume(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new UnauthorizedException("Refresh token is required");
+        }
+
+        String tokenHash = hash(rawToken);
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHashWithEmployee(tokenHash)
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        Employee employee = refreshToken.getEmployee();
+        LocalDateTime now = LocalDateTime.now();
+
+        if (refreshToken.getRevoked()) {
+            throw reuseDetected(employee, now);
+        }
+
+        if (refreshToken.getExpiresAt().isBefore(now)) {
+            throw new UnauthorizedException("Refresh token has expired");
+        }
+
+        if (employee.getDeleted() || employee.getStatus() != EmployeeStatus.ACTIVE) {
+            refreshTokenRepository.revokeAllForEmployee(employee.getId(), now);
+            throw new UnauthorizedException("Account is not active");
+        }
+
+        // The conditional update is the actual claim: of two requests presenting the same token, only one revokes it
+        if (refreshTokenRepository.revokeIfActive(tokenHash, now) == 0) {
+            throw reuseDetected(employee, now);
+        }
+
+        return employee;
+    }
+
+    /**
+     * Revokes a single token, e.g. on logout. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+
+        refreshTokenRepository.revokeIfActive(hash(rawToken), LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revokeAllForEmployee(Long employeeId) {
+        refreshTokenRepository.revokeAllForEmployee(employeeId, LocalDateTime.now());
+    }
+
+    /**
+     * Deletes tokens that expired before the given time. Revoked tokens are kept until then
+     * so that reuse of a rotated token can still be detected.
+     */
+    @Transactional
+    public int purgeExpired(LocalDateTime cutoff) {
+        return refreshTokenRepository.deleteExpiredBefore(cutoff);
+    }
+
+    // A rotated token came back: assume it was stolen and end every session of this employee
+    private UnauthorizedException reuseDetected(Employee employee, LocalDateTime now) {
+        log.warn("Refresh token reuse detected for employee {}", employee.getId());
+        refreshTokenRepository.revokeAllForEmployee(employee.getId(), now);
+        return new UnauthorizedException("Invalid refresh token");
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.leavemarker.service;
+
+import com.leavemarker.enums.ReportType;
+import com.leavemarker.service.CompanyVersionService.Kind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches generated report files per company, report type, parameters and format. Every company has a
+ * data generation, {@code companies.data_generation}, that services bump through {@link CompanyVersionService}
+ * with every change to leave applications, balances or attendance. Every lookup reads it, so an entry is only served
+ * while the generation it was built under is still current, whichever replica made the change.
+ * The ETag names one cached entry, including when it was built, and If-None-Match is only answered
+ * with 304 while that entry is still cached. Entries also expire after {@code reports.cache.ttl-ms}.
+ */
+@Service
+public class ReportCacheService {
+
+    private final CompanyVersionService companyVersionService;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Value("${reports.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${reports.cache.max-entry-bytes:8388608}")
+    private int maxEntryBytes;
+
+    @Value("${reports.cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    public ReportCacheService(CompanyVersionService companyVersionService, MeterRegistry meterRegistry) {
+        this.companyVersionService = companyVersionService;
+        this.hitCounter = Counter.builder("reports.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("reports.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached entry's ETag and bytes if an unexpired entry for the current generation exists,
+     * otherwise the ETag the report built now will be cached under.
+     */
+    public Lookup lookup(Key key) {
+        long generation = generation(key.companyId());
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && (entry.generation != generation || entry.isExpired(ttlMs))) {
+                remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry != null) {
+            hitCounter.increment();
+            return new Lookup(entry.etag, generation, entry.createdAt, entry.bytes);
+        }
+        missCounter.increment();
+        long createdAt = System.currentTimeMillis();
+        return new Lookup(etag(key, generation, createdAt), generation, createdAt, null);
+    }
+
+    /**
+     * Whether an If-None-Match header value matches the ETag.
+     */
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wraps the body so the bytes it writes are also kept and cached under the lookup's generation and
+     * ETag once it completes. Reports larger than {@code reports.cache.max-entry-bytes} are streamed but
+     * not cached, so their ETag never matches.
+     */
+    public StreamingResponseBody caching(Key key, Lookup lookup, StreamingResponseBody body) {
+        return out -> {
+            CapturingOutputStream capture = new CapturingOutputStream(out, maxEntryBytes);
+            body.writeTo(capture);
+            byte[] bytes = capture.captured();
+            if (bytes != null) {
+                put(key, new Entry(lookup.generation(), lookup.etag(), bytes, lookup.createdAt()));
+            }
+        };
+    }
+
+    /**
+     * Invalidates the company's cached reports on every replica, together with the change that commits.
+     */
+    public void dataChanged(Long companyId) {
+        companyVersionService.bump(companyId, Kind.REPORT_DATA);
+    }
+
+    private String etag(Key key, long generation, long createdAt) {
+        return "\"" + generation + "-" + Long.toHexString(createdAt) + "-"
+                + Integer.toHexString(key.hashCode()) + "\"";
+    }
+
+    private long generation(Long companyId) {
+        return companyVersionService.current(companyId, Kind.REPORT_DATA);
+    }
+
+    private void put(Key key, Entry entry) {
+        // A change committed while the report was written makes it stale before it is stored
+        if (entry.generation != generation(key.companyId())) {
+            return;
+        }
+        synchronized (entries) {
+            remove(key);
+            entries.put(key, entry);
+            cachedBytes += entry.bytes.length;
+
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (cachedBytes > maxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().getValue().bytes.length;
+                eldest.remove();
+            }
+        }
+    }
+
+    // Callers hold the entries lock
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            cachedBytes -= removed.bytes.length;
+        }
+    }
+
+    /**
+     * Identifies one report file. {@code parameters} holds the report's arguments, such as the year or date range.
+     */
+    public record Key(Long companyId, ReportType type, String parameters, String format, boolean gzip) {
+
+        public Key {
+            format = format != null ? format.toLowerCase() : null;
+        }
+    }
+
+    /**
+     * {@code cached} is null on a miss; {@code createdAt} is when the entry was, or will be, built.
+     */
+    public record Lookup(String etag, long generation, long createdAt, byte[] cached) {
+    }
+
+    private record Entry(long generation, String etag, byte[] bytes, long createdAt) {
+
+        private boolean isExpired(long ttlMs) {
+            return System.currentTimeMillis() - createdAt > ttlMs;
+        }
+    }
+
+    /**
+     * Passes writes through and keeps a copy until it exceeds the limit.
+     */
+    private static final class CapturingOutputStream extends FilterOutputStream {
+
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private CapturingOutputStream(OutputStream out, int limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (keep(1)) {
+                copy.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (keep(len)) {
+                copy.write(b, off, len);
+            }
+        }
+
+        // Closing is left to the container, which owns the response stream
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private boolean keep(int len) {
+            if (copy != null && copy.size() + len > limit) {
+                copy = null;
+            }
+            return copy != null;
+        }
+
+        private byte[] captured() {
+            return copy != null ? copy.toByteArray() : null;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.leavemarker.service;
+
+import com.leavemarker.config.BoundedExecutors;
+import com.leavemarker.dto.report.ReportJobRequest;
+import com.leavemarker.dto.report.ReportJobResponse;
+import com.leavemarker.enums.JobStatus;
+import com.leavemarker.enums.ReportType;
+import com.leavemarker.exception.BadRequestException;
+import com.leavemarker.exception.ResourceNotFoundException;
+import com.leavemarker.exception.ServiceUnavailableException;
+import com.leavemarker.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates reports in the background into a local file store, so large ranges are not bound to a
+ * request's lifetime. Job handles are kept in memory; a job and its file are removed once the TTL after
+ * completion has passed.
+ * <p>
+ * Jobs are only known to the instance that accepted them, so with several replicas the load balancer
+ * must route a client's status and download requests to the same instance (sticky sessions); on another
+ * instance the job is reported as not found. Each instance writes under its own
+ * {@code <directory>/<node id>} subdirectory and clears only that at startup, since its handles did not
+ * survive the restart, so instances sharing a volume never delete each other's files.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobService {
+
+    private static final int RETRY_AFTER_SECONDS = 30;
+    private static final long CLEANUP_INTERVAL_SECONDS = 60;
+
+    private final ReportService reportService;
+
+    @Value("${reports.jobs.directory:${java.io.tmpdir}/leave-marker-reports}")
+    private String directory;
+
+    // Same identity as the cluster job locks; must differ between instances sharing the directory
+    @Value("${jobs.node-id:${HOSTNAME:local}}")
+    private String nodeId;
+
+    @Value("${reports.jobs.ttl-minutes:60}")
+    private long jobTtlMinutes;
+
+    private final ConcurrentHashMap<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    // Report generation holds a database connection for its whole run, so the pool stays small
+    private final ThreadPoolExecutor reportExecutor = BoundedExecutors.newFixedPool("report-worker", 2, 32);
+
+    private Path store;
+    private ScheduledExecutorService cleaner;
+
+    @PostConstruct
+    void start() {
+        try {
+            store = Files.createDirectories(Path.of(directory).resolve(nodeId));
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(store)) {
+                for (Path file : leftovers) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not prepare report store " + directory, ex);
+        }
+
+        cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "report-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleWithFixedDelay(this::evictExpired, CLEANUP_INTERVAL_SECONDS, CLEANUP_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reportExecutor.shutdownNow();
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+    }
+
+    /**
+     * Validates the request and queues the report. Access and format are checked here, so a job
+     * that is accepted only fails on errors while generating.
+     */
+    public ReportJobResponse submit(ReportJobRequest request, UserPrincipal currentUser) {
+        String format = request.getFormat() != null ? request.getFormat().toLowerCase() : "excel";
+        StreamingResponseBody body = prepare(request, format, currentUser);
+
+        String id = UUID.randomUUID().toString();
+        ReportJob job = new ReportJob(id, currentUser.getCompanyId(), request.getType(), format,
+                fileName(request, format), store.resolve(id + ("csv".equals(format) ? ".csv" : ".xlsx")));
+        jobs.put(id, job);
+
+        try {
+            reportExecutor.execute(() -> execute(job, body));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(id);
+            throw new ServiceUnavailableException("Too many reports are being generated, please retry shortly",
+                    RETRY_AFTER_SECONDS);
+        }
+        return job.toResponse(jobTtlMinutes);
+    }
+
+    public ReportJobResponse getJob(String jobId, Long companyId) {
+        return find(jobId, companyId).toResponse(jobTtlMinutes);
+    }
+
+    /**
+     * Returns the finished report's file, failing if the job has not completed.
+     */
+    public ReportFile getFile(String jobId, Long companyId) {
+        ReportJob job = find(jobId, companyId);
+        if (job.status != JobStatus.COMPLETED) {
+            throw new BadRequestException(job.status == JobStatus.FAILED
+                    ? "Report generation failed: " + job.errorMessage
+                    : "Report is not ready yet");
+        }
+        if (!Files.exists(job.file)) {
+            throw new ResourceNotFoundException("Report file has expired");
+        }
+        return new ReportFile(job.file, job.fileName, job.format, job.sizeBytes);
+    }
+
+    /**
+     * Copies {@code count} bytes of the file from {@code position} to the stream. This is the fallback for
+     * connectors without sendfile: the servlet stream is not a file or socket channel, so
+     * {@link FileChannel#transferTo} copies through a small buffer rather than sending zero-copy.
+     */
+    public void transfer(ReportFile file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long end = position + count;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+        out.flush();
+    }
+
+    private StreamingResponseBody prepare(ReportJobRequest request, String format, UserPrincipal currentUser) {
+        if (request.getType() == ReportType.LEAVE_BALANCE) {
+            if (request.getYear() == null) {
+                throw new BadRequestException("Year is required for the leave balance report");
+            }
+            return reportService.generateLeaveBalanceReport(request.getYear(), currentUser, format, false);
+        }
+
+        if (request.getStartDate() == null || request.getEndDate() == null) {
+            throw new BadRequestException("Start date and end date are required");
+        }
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        return request.getType() == ReportType.ATTENDANCE
+                ? reportService.generateAttendanceReport(request.getStartDate(), request.getEndDate(), currentUser, format, false)
+                : reportService.generateLeaveUsageReport(request.getStartDate(), request.getEndDate(), currentUser, format, false);
+    }
+
+    private void execute(ReportJob job, StreamingResponseBody body) {
+        // Written under a temporary name so a half-written file is never served
+        Path partial = job.file.resolveSibling(job.file.getFileName() + ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                body.writeTo(out);
+            }
+            Files.move(partial, job.file, StandardCopyOption.ATOMIC_MOVE);
+            job.sizeBytes = Files.size(job.file);
+            job.status = JobStatus.COMPLETED;
+            log.info("Generated {} report {} for company {} ({} bytes)", job.type, job.id, job.companyId, job.sizeBytes);
+        } catch (Exception ex) {
+            log.error("Report job {} failed for company {}", job.id, job.companyId, ex);
+            job.errorMessage = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            job.status = JobStatus.FAILED;
+            deleteQuietly(partial);
+        } finally {
+            job.completedAt = LocalDateTime.now();
+        }
+    }
+
+    private ReportJob find(String jobId, Long companyId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null || !Objects.equals(job.companyId, companyId)) {
+            throw new ResourceNotFoundException("Report job not found");
+        }
+        return job;
+    }
+
+    private void evictExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobTtlMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.completedAt == null || !job.completedAt.isBefore(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.file);
+            return true;
+        });
+    }
+
+    private static String fileName(ReportJobRequest request, String format) {
+        return switch (request.getType()) {
+            case LEAVE_BALANCE -> "leave_balance_report_" + request.getYear() + "." + format;
+            case ATTENDANCE -> "attendance_report_" + request.getStartDate() + "_to_" + request.getEndDate() + "." + format;
+            case LEAVE_USAGE -> "leave_usage_report_" + request.getStartDate() + "_to_" + request.getEndDate() + "." + format;
+        };
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete report file {}", file, ex);
+        }
+    }
+
+    public record ReportFile(Path path, String fileName, String format, long sizeBytes) {
+    }
+
+    // Written only by the worker thread; volatile so pollers see progress
+    private static final class ReportJob {
+        private final String id;
+        private final Long companyId;
+        private final ReportType type;
+        private final String format;
+        private final String fileName;
+        private final Path file;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile JobStatus status = JobStatus.RUNNING;
+        private volatile long sizeBytes;
+        private volatile String errorMessage;
+        private volatile LocalDateTime completedAt;
+
+        private ReportJob(String id, Long companyId, ReportType type, String format, String fileName, Path file) {
+            this.id = id;
+            this.companyId = companyId;
+            this.type = type;
+            this.format = format;
+            this.fileName = fileName;
+            this.file = file;
+        }
+
+        private ReportJobResponse toResponse(long ttlMinutes) {
+            LocalDateTime completed = completedAt;
+            return ReportJobResponse.builder()
+                    .jobId(id)
+                    .type(type)
+                    .format(format)
+                    .status(status)
+                    .fileName(fileName)
+                    .sizeBytes(status == JobStatus.COMPLETED ? sizeBytes : null)
+                    .errorMessage(errorMessage)
+                    .startedAt(startedAt)
+                    .completedAt(completed)
+                    .expiresAt(completed != null ? completed.plusMinutes(ttlMinutes) : null)
+                    .build();
+        }
+    }
+}
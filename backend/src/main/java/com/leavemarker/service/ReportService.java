@@ -1,279 +1,257 @@
 package com.leavemarker.service;
 
-import com.leavemarker.entity.Attendance;
-import com.leavemarker.entity.LeaveApplication;
-import com.leavemarker.entity.LeaveBalance;
+import com.leavemarker.dto.report.AttendanceReportRow;
+import com.leavemarker.dto.report.LeaveBalanceReportRow;
+import com.leavemarker.dto.report.LeaveUsageReportRow;
 import com.leavemarker.exception.BadRequestException;
 import com.leavemarker.repository.AttendanceRepository;
 import com.leavemarker.repository.LeaveApplicationRepository;
 import com.leavemarker.repository.LeaveBalanceRepository;
 import com.leavemarker.security.UserPrincipal;
-import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.util.List;
-
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Builds report downloads. Access and format are checked on the request thread; the rows are then
+ * selected as single-join projections through a database cursor inside a read-only transaction while
+ * the response is being written, so neither the rows nor the file are ever held in memory as a whole.
+ */
 @Service
-@RequiredArgsConstructor
 public class ReportService {
 
+    private static final String[] LEAVE_BALANCE_HEADERS = {"Employee ID", "Employee Name", "Leave Type", "Year",
+            "Total Quota", "Used", "Pending", "Available", "Carried Forward"};
+    private static final String[] ATTENDANCE_HEADERS = {"Employee ID", "Employee Name", "Date", "Punch In",
+            "Punch Out", "Work Type", "Status", "Remarks"};
+    private static final String[] LEAVE_USAGE_HEADERS = {"Employee ID", "Employee Name", "Leave Type", "Start Date",
+            "End Date", "Days", "Status", "Applied Date"};
+
     private final LeaveBalanceRepository leaveBalanceRepository;
     private final LeaveApplicationRepository leaveApplicationRepository;
     private final AttendanceRepository attendanceRepository;
     private final SubscriptionFeatureService subscriptionFeatureService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Rows kept in memory by the streaming workbook; older rows are flushed to a temp file
+    @Value("${reports.excel.row-window:100}")
+    private int excelRowWindow;
+
+    public ReportService(LeaveBalanceRepository leaveBalanceRepository,
+                         LeaveApplicationRepository leaveApplicationRepository,
+                         AttendanceRepository attendanceRepository,
+                         SubscriptionFeatureService subscriptionFeatureService,
+                         PlatformTransactionManager transactionManager) {
+        this.leaveBalanceRepository = leaveBalanceRepository;
+        this.leaveApplicationRepository = leaveApplicationRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.subscriptionFeatureService = subscriptionFeatureService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
-    public byte[] generateLeaveBalanceReport(Integer year, UserPrincipal currentUser, String format) {
-        // Check if advanced reports are available on their plan
-        subscriptionFeatureService.validateReportsAccess(currentUser.getCompanyId());
-        List<LeaveBalance> balances = leaveBalanceRepository
-                .findByEmployeeCompanyIdAndYearAndDeletedFalse(currentUser.getCompanyId(), year);
+    /**
+     * Checks that the company's plan includes advanced reports.
+     */
+    public void validateAccess(Long companyId) {
+        subscriptionFeatureService.validateReportsAccess(companyId);
+    }
+
+    /**
+     * @param gzip whether a CSV body is gzip-compressed; ignored for Excel, which is already compressed
+     */
+    public StreamingResponseBody generateLeaveBalanceReport(Integer year, UserPrincipal currentUser, String format,
+                                                            boolean gzip) {
+        validateAccess(currentUser.getCompanyId());
+        Long companyId = currentUser.getCompanyId();
 
         if ("csv".equalsIgnoreCase(format)) {
-            return generateLeaveBalanceCsv(balances);
+            return streamed(out -> {
+                try (CsvWriter csv = new CsvWriter(out, gzip);
+                     Stream<LeaveBalanceReportRow> balances = leaveBalanceRepository.streamReportRows(companyId, year)) {
+                    csv.row(LEAVE_BALANCE_HEADERS);
+                    for (Iterator<LeaveBalanceReportRow> it = balances.iterator(); it.hasNext(); ) {
+                        LeaveBalanceReportRow balance = it.next();
+                        csv.text(balance.employeeId())
+                                .text(balance.employeeName())
+                                .text(balance.leaveType())
+                                .number(balance.year())
+                                .decimal(balance.totalQuota())
+                                .decimal(balance.used())
+                                .decimal(balance.pending())
+                                .decimal(balance.available())
+                                .decimal(balance.carriedForward())
+                                .endRow();
+                    }
+                }
+            });
         } else if ("excel".equalsIgnoreCase(format)) {
-            return generateLeaveBalanceExcel(balances);
+            int[] widths = {14, 30, 20, 8, 12, 10, 10, 10, 16};
+            return streamed(out -> {
+                try (ExcelReportWriter writer = new ExcelReportWriter("Leave Balance Report", LEAVE_BALANCE_HEADERS,
+                        widths, excelRowWindow);
+                     Stream<LeaveBalanceReportRow> balances = leaveBalanceRepository.streamReportRows(companyId, year)) {
+                    for (Iterator<LeaveBalanceReportRow> it = balances.iterator(); it.hasNext(); ) {
+                        LeaveBalanceReportRow balance = it.next();
+                        writer.addRow(
+                                balance.employeeId(),
+                                balance.employeeName(),
+                                balance.leaveType(),
+                                balance.year(),
+                                balance.totalQuota(),
+                                balance.used(),
+                                balance.pending(),
+                                balance.available(),
+                                balance.carriedForward());
+                    }
+                    writer.writeTo(out);
+                }
+            });
         } else {
             throw new BadRequestException("Unsupported format. Use 'csv' or 'excel'");
         }
     }
 
-    public byte[] generateAttendanceReport(LocalDate startDate, LocalDate endDate,
-                                           UserPrincipal currentUser, String format) {
-        // Check if advanced reports are available on their plan
-        subscriptionFeatureService.validateReportsAccess(currentUser.getCompanyId());
-
-        List<Attendance> attendances = attendanceRepository
-                .findByCompanyIdAndDateRange(currentUser.getCompanyId(), startDate, endDate);
+    /**
+     * @param gzip whether a CSV body is gzip-compressed; ignored for Excel, which is already compressed
+     */
+    public StreamingResponseBody generateAttendanceReport(LocalDate startDate, LocalDate endDate,
+                                                          UserPrincipal currentUser, String format, boolean gzip) {
+        validateAccess(currentUser.getCompanyId());
+        Long companyId = currentUser.getCompanyId();
 
         if ("csv".equalsIgnoreCase(format)) {
-            return generateAttendanceCsv(attendances);
+            return streamed(out -> {
+                try (CsvWriter csv = new CsvWriter(out, gzip);
+                     Stream<AttendanceReportRow> attendances =
+                             attendanceRepository.streamReportRows(companyId, startDate, endDate)) {
+                    csv.row(ATTENDANCE_HEADERS);
+                    for (Iterator<AttendanceReportRow> it = attendances.iterator(); it.hasNext(); ) {
+                        AttendanceReportRow attendance = it.next();
+                        csv.text(attendance.employeeId())
+                                .text(attendance.employeeName())
+                                .text(attendance.date())
+                                .text(attendance.punchInTime())
+                                .text(attendance.punchOutTime())
+                                .text(attendance.workType())
+                                .text(attendance.status())
+                                .text(attendance.remarks())
+                                .endRow();
+                    }
+                }
+            });
         } else if ("excel".equalsIgnoreCase(format)) {
-            return generateAttendanceExcel(attendances);
+            int[] widths = {14, 30, 12, 10, 10, 10, 10, 50};
+            return streamed(out -> {
+                try (ExcelReportWriter writer = new ExcelReportWriter("Attendance Report", ATTENDANCE_HEADERS,
+                        widths, excelRowWindow);
+                     Stream<AttendanceReportRow> attendances =
+                             attendanceRepository.streamReportRows(companyId, startDate, endDate)) {
+                    for (Iterator<AttendanceReportRow> it = attendances.iterator(); it.hasNext(); ) {
+                        AttendanceReportRow attendance = it.next();
+                        writer.addRow(
+                                attendance.employeeId(),
+                                attendance.employeeName(),
+                                attendance.date(),
+                                attendance.punchInTime(),
+                                attendance.punchOutTime(),
+                                attendance.workType(),
+                                attendance.status(),
+                                attendance.remarks());
+                    }
+                    writer.writeTo(out);
+                }
+            });
         } else {
             throw new BadRequestException("Unsupported format. Use 'csv' or 'excel'");
         }
     }
 
-    public byte[] generateLeaveUsageReport(LocalDate startDate, LocalDate endDate,
-                                           UserPrincipal currentUser, String format) {
-        // Check if advanced reports are available on their plan
-        subscriptionFeatureService.validateReportsAccess(currentUser.getCompanyId());
-
-        List<LeaveApplication> leaves = leaveApplicationRepository
-                .findByCompanyIdAndDateRange(currentUser.getCompanyId(), startDate, endDate);
+    /**
+     * @param gzip whether a CSV body is gzip-compressed; ignored for Excel, which is already compressed
+     */
+    public StreamingResponseBody generateLeaveUsageReport(LocalDate startDate, LocalDate endDate,
+                                                          UserPrincipal currentUser, String format, boolean gzip) {
+        validateAccess(currentUser.getCompanyId());
+        Long companyId = currentUser.getCompanyId();
 
         if ("csv".equalsIgnoreCase(format)) {
-            return generateLeaveUsageCsv(leaves);
+            return streamed(out -> {
+                try (CsvWriter csv = new CsvWriter(out, gzip);
+                     Stream<LeaveUsageReportRow> leaves =
+                             leaveApplicationRepository.streamReportRows(companyId, startDate, endDate)) {
+                    csv.row(LEAVE_USAGE_HEADERS);
+                    for (Iterator<LeaveUsageReportRow> it = leaves.iterator(); it.hasNext(); ) {
+                        LeaveUsageReportRow leave = it.next();
+                        csv.text(leave.employeeId())
+                                .text(leave.employeeName())
+                                .text(leave.leaveType())
+                                .text(leave.startDate())
+                                .text(leave.endDate())
+                                .decimal(leave.numberOfDays())
+                                .text(leave.status())
+                                .text(leave.appliedAt().toLocalDate())
+                                .endRow();
+                    }
+                }
+            });
         } else if ("excel".equalsIgnoreCase(format)) {
-            return generateLeaveUsageExcel(leaves);
+            int[] widths = {14, 30, 20, 12, 12, 8, 12, 14};
+            return streamed(out -> {
+                try (ExcelReportWriter writer = new ExcelReportWriter("Leave Usage Report", LEAVE_USAGE_HEADERS,
+                        widths, excelRowWindow);
+                     Stream<LeaveUsageReportRow> leaves =
+                             leaveApplicationRepository.streamReportRows(companyId, startDate, endDate)) {
+                    for (Iterator<LeaveUsageReportRow> it = leaves.iterator(); it.hasNext(); ) {
+                        LeaveUsageReportRow leave = it.next();
+                        writer.addRow(
+                                leave.employeeId(),
+                                leave.employeeName(),
+                                leave.leaveType(),
+                                leave.startDate(),
+                                leave.endDate(),
+                                leave.numberOfDays(),
+                                leave.status(),
+                                leave.appliedAt().toLocalDate());
+                    }
+                    writer.writeTo(out);
+                }
+            });
         } else {
             throw new BadRequestException("Unsupported format. Use 'csv' or 'excel'");
         }
     }
 
-    private byte[] generateLeaveBalanceCsv(List<LeaveBalance> balances) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Employee ID,Employee Name,Leave Type,Year,Total Quota,Used,Pending,Available,Carried Forward\n");
-
-        for (LeaveBalance balance : balances) {
-            csv.append(String.format("%s,%s,%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f\n",
-                    balance.getEmployee().getEmployeeId(),
-                    balance.getEmployee().getFullName(),
-                    balance.getLeaveType(),
-                    balance.getYear(),
-                    balance.getTotalQuota(),
-                    balance.getUsed(),
-                    balance.getPending(),
-                    balance.getAvailable(),
-                    balance.getCarriedForward()
-            ));
-        }
-
-        return csv.toString().getBytes();
-    }
-
-    private byte[] generateLeaveBalanceExcel(List<LeaveBalance> balances) {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-
-            Sheet sheet = workbook.createSheet("Leave Balance Report");
-
-            String[] headers = {"Employee ID", "Employee Name", "Leave Type", "Year",
-                    "Total Quota", "Used", "Pending", "Available", "Carried Forward"};
-            Row headerRow = sheet.createRow(0);
-
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            int rowNum = 1;
-            for (LeaveBalance balance : balances) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(balance.getEmployee().getEmployeeId());
-                row.createCell(1).setCellValue(balance.getEmployee().getFullName());
-                row.createCell(2).setCellValue(balance.getLeaveType().toString());
-                row.createCell(3).setCellValue(balance.getYear());
-                row.createCell(4).setCellValue(balance.getTotalQuota());
-                row.createCell(5).setCellValue(balance.getUsed());
-                row.createCell(6).setCellValue(balance.getPending());
-                row.createCell(7).setCellValue(balance.getAvailable());
-                row.createCell(8).setCellValue(balance.getCarriedForward());
-            }
-
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(out);
-            return out.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to generate Excel report", e);
-        }
-    }
-
-    private byte[] generateAttendanceCsv(List<Attendance> attendances) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Employee ID,Employee Name,Date,Punch In,Punch Out,Work Type,Status,Remarks\n");
-
-        for (Attendance attendance : attendances) {
-            csv.append(String.format("%s,%s,%s,%s,%s,%s,%s,%s\n",
-                    attendance.getEmployee().getEmployeeId(),
-                    attendance.getEmployee().getFullName(),
-                    attendance.getDate(),
-                    attendance.getPunchInTime() != null ? attendance.getPunchInTime() : "",
-                    attendance.getPunchOutTime() != null ? attendance.getPunchOutTime() : "",
-                    attendance.getWorkType() != null ? attendance.getWorkType() : "",
-                    attendance.getStatus(),
-                    attendance.getRemarks() != null ? attendance.getRemarks() : ""
-            ));
-        }
-
-        return csv.toString().getBytes();
-    }
-
-    private byte[] generateAttendanceExcel(List<Attendance> attendances) {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-
-            Sheet sheet = workbook.createSheet("Attendance Report");
-
-            String[] headers = {"Employee ID", "Employee Name", "Date", "Punch In",
-                    "Punch Out", "Work Type", "Status", "Remarks"};
-            Row headerRow = sheet.createRow(0);
-
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            int rowNum = 1;
-            for (Attendance attendance : attendances) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(attendance.getEmployee().getEmployeeId());
-                row.createCell(1).setCellValue(attendance.getEmployee().getFullName());
-                row.createCell(2).setCellValue(attendance.getDate().toString());
-                row.createCell(3).setCellValue(attendance.getPunchInTime() != null ?
-                        attendance.getPunchInTime().toString() : "");
-                row.createCell(4).setCellValue(attendance.getPunchOutTime() != null ?
-                        attendance.getPunchOutTime().toString() : "");
-                row.createCell(5).setCellValue(attendance.getWorkType() != null ?
-                        attendance.getWorkType().toString() : "");
-                row.createCell(6).setCellValue(attendance.getStatus().toString());
-                row.createCell(7).setCellValue(attendance.getRemarks() != null ?
-                        attendance.getRemarks() : "");
-            }
-
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+    /**
+     * Runs the body inside a read-only transaction, which keeps the cursor open while rows are written.
+     */
+    private StreamingResponseBody streamed(ReportBody body) {
+        return out -> {
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try {
+                        body.write(out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
-
-            workbook.write(out);
-            return out.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to generate Excel report", e);
-        }
-    }
-
-    private byte[] generateLeaveUsageCsv(List<LeaveApplication> leaves) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Employee ID,Employee Name,Leave Type,Start Date,End Date,Days,Status,Applied Date\n");
-
-        for (LeaveApplication leave : leaves) {
-            csv.append(String.format("%s,%s,%s,%s,%s,%.1f,%s,%s\n",
-                    leave.getEmployee().getEmployeeId(),
-                    leave.getEmployee().getFullName(),
-                    leave.getLeaveType(),
-                    leave.getStartDate(),
-                    leave.getEndDate(),
-                    leave.getNumberOfDays(),
-                    leave.getStatus(),
-                    leave.getCreatedAt().toLocalDate()
-            ));
-        }
-
-        return csv.toString().getBytes();
+        };
     }
 
-    private byte[] generateLeaveUsageExcel(List<LeaveApplication> leaves) {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-
-            Sheet sheet = workbook.createSheet("Leave Usage Report");
-
-            String[] headers = {"Employee ID", "Employee Name", "Leave Type", "Start Date",
-                    "End Date", "Days", "Status", "Applied Date"};
-            Row headerRow = sheet.createRow(0);
-
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            int rowNum = 1;
-            for (LeaveApplication leave : leaves) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(leave.getEmployee().getEmployeeId());
-                row.createCell(1).setCellValue(leave.getEmployee().getFullName());
-                row.createCell(2).setCellValue(leave.getLeaveType().toString());
-                row.createCell(3).setCellValue(leave.getStartDate().toString());
-                row.createCell(4).setCellValue(leave.getEndDate().toString());
-                row.createCell(5).setCellValue(leave.getNumberOfDays());
-                row.createCell(6).setCellValue(leave.getStatus().toString());
-                row.createCell(7).setCellValue(leave.getCreatedAt().toLocalDate().toString());
-            }
-
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(out);
-            return out.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to generate Excel report", e);
-        }
+    @FunctionalInterface
+    private interface ReportBody {
+        void write(OutputStream out) throws IOException;
     }
 }
@@ -0,0 +1,84 @@
+package com.leavemarker.service;
+
+import com.leavemarker.dto.leavebalance.YearEndClosingResponse;
+import com.leavemarker.enums.JobStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+
+/**
+ * Cron entry points for recurring batch work. Each job delegates to an idempotent service method
+ * through {@link ClusterJobRunner}, which keeps replicas from running the same unit twice at once.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScheduledJobs {
+
+    private final ClusterJobRunner jobRunner;
+    private final SubscriptionService subscriptionService;
+    private final LeaveBalanceService leaveBalanceService;
+    private final YearEndClosingService yearEndClosingService;
+    private final LeaveLedgerService leaveLedgerService;
+    private final RefreshTokenService refreshTokenService;
+    private final AttendanceDayCloseService attendanceDayCloseService;
+
+    @Value("${jobs.refresh-token-retention-days:7}")
+    private long refreshTokenRetentionDays;
+
+    @Scheduled(cron = "${jobs.subscription-expiry.cron:0 0 * * * *}")
+    public void expireSubscriptions() {
+        jobRunner.runGlobal("subscription-expiry", subscriptionService::expireSubscriptions);
+    }
+
+    /**
+     * Accrues the month that just ended.
+     */
+    @Scheduled(cron = "${jobs.monthly-accrual.cron:0 30 0 1 * *}")
+    public void accrueMonthlyLeave() {
+        YearMonth period = YearMonth.now().minusMonths(1);
+        jobRunner.runPerCompany("monthly-accrual", companyId ->
+                leaveBalanceService.processMonthlyAccrual(companyId, period.getYear(), period.getMonthValue()));
+    }
+
+    /**
+     * Closes the year that just ended. Runs after the December accrual.
+     */
+    @Scheduled(cron = "${jobs.year-end-closing.cron:0 0 2 1 1 *}")
+    public void closeLeaveYear() {
+        int year = Year.now().getValue() - 1;
+        jobRunner.runPerCompany(YearEndClosingService.JOB_NAME, companyId -> {
+            YearEndClosingResponse closing = yearEndClosingService.closeYear(companyId, year);
+            if (closing.getStatus() == JobStatus.FAILED) {
+                throw new IllegalStateException(closing.getErrorMessage());
+            }
+            return closing.getProcessedBalances();
+        });
+    }
+
+    @Scheduled(cron = "${jobs.ledger-snapshot.cron:0 15 3 * * *}")
+    public void snapshotLeaveLedger() {
+        jobRunner.runGlobal("ledger-snapshot", leaveLedgerService::takeSnapshots);
+    }
+
+    @Scheduled(cron = "${jobs.refresh-token-purge.cron:0 45 3 * * *}")
+    public void purgeRefreshTokens() {
+        jobRunner.runGlobal("refresh-token-purge", () ->
+                refreshTokenService.purgeExpired(LocalDateTime.now().minusDays(refreshTokenRetentionDays)));
+    }
+
+    /**
+     * Runs often so every timezone is closed shortly after its own midnight; companies already
+     * closed for their date are skipped.
+     */
+    @Scheduled(cron = "${jobs.attendance-day-close.cron:0 */15 * * * *}")
+    public void closeAttendanceDay() {
+        attendanceDayCloseService.findDueCompanies().forEach((date, companyIds) ->
+                jobRunner.runForCompanies("attendance-day-close", companyIds, companyId ->
+                        attendanceDayCloseService.closeDay(companyId, date)));
+    }
+}
@@ -0,0 +1,138 @@
+package com.leavemarker.service;
+
+import com.leavemarker.entity.Plan;
+import com.leavemarker.entity.Subscription;
+import com.leavemarker.enums.PlanFeature;
+import com.leavemarker.enums.PlanTier;
+import com.leavemarker.exception.BadRequestException;
+import com.leavemarker.repository.CompanyRepository;
+import com.leavemarker.repository.SubscriptionRepository;
+import com.leavemarker.service.CompanyVersionService.Kind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Per-company cache of what the active subscription entitles a company to. A miss costs one query
+ * (subscription joined with its plan); companies without an active subscription are cached too.
+ * Every change to a subscription or payment bumps the company's subscription version, and a hit is only
+ * served while its entry was loaded under the current version, whichever replica made the change.
+ * Entries also expire after {@code subscription.entitlement-cache-ttl} milliseconds as a backstop.
+ */
+@Service
+public class SubscriptionEntitlementService {
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final CompanyRepository companyRepository;
+    private final CompanyVersionService companyVersionService;
+
+    private final VersionedCache<Long, Entitlements> entitlements = new VersionedCache<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Value("${subscription.entitlement-cache-ttl:300000}")
+    private long cacheTtlMs;
+
+    public SubscriptionEntitlementService(SubscriptionRepository subscriptionRepository,
+                                          CompanyRepository companyRepository,
+                                          CompanyVersionService companyVersionService,
+                                          MeterRegistry meterRegistry) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.companyRepository = companyRepository;
+        this.companyVersionService = companyVersionService;
+
+        this.hitCounter = Counter.builder("subscription.entitlement.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("subscription.entitlement.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("subscription.entitlement.cache.size", entitlements, VersionedCache::size)
+                .register(meterRegistry);
+    }
+
+    public Entitlements get(Long companyId) {
+        long version = companyVersionService.current(companyId, Kind.SUBSCRIPTION);
+        Entitlements cached = entitlements.get(companyId, version, cacheTtlMs);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+
+        missCounter.increment();
+        Entitlements loaded = load(companyId);
+        entitlements.put(companyId, version, loaded);
+        return loaded;
+    }
+
+    /**
+     * Invalidates the company's entry on every replica, together with the change that commits.
+     */
+    public void evict(Long companyId) {
+        companyVersionService.bump(companyId, Kind.SUBSCRIPTION);
+    }
+
+    private Entitlements load(Long companyId) {
+        Optional<Subscription> subscriptionOpt = subscriptionRepository.findActiveWithPlan(companyId);
+        if (subscriptionOpt.isEmpty()) {
+            if (!companyRepository.existsById(companyId)) {
+                throw new BadRequestException("Company not found");
+            }
+            return Entitlements.none();
+        }
+
+        Subscription subscription = subscriptionOpt.get();
+        Plan plan = subscription.getPlan();
+
+        int features = 0;
+        features |= flag(plan.getAttendanceManagement(), PlanFeature.ATTENDANCE_MANAGEMENT);
+        features |= flag(plan.getReportsDownload(), PlanFeature.REPORTS_DOWNLOAD);
+        features |= flag(plan.getMultipleLeavePolicies(), PlanFeature.MULTIPLE_LEAVE_POLICIES);
+        features |= flag(plan.getUnlimitedHolidays(), PlanFeature.UNLIMITED_HOLIDAYS);
+        features |= flag(plan.getAttendanceRateAnalytics(), PlanFeature.ATTENDANCE_RATE_ANALYTICS);
+        features |= flag(plan.getAdvancedReports(), PlanFeature.ADVANCED_REPORTS);
+        features |= flag(plan.getCustomLeaveTypes(), PlanFeature.CUSTOM_LEAVE_TYPES);
+        features |= flag(plan.getApiAccess(), PlanFeature.API_ACCESS);
+        features |= flag(plan.getPrioritySupport(), PlanFeature.PRIORITY_SUPPORT);
+
+        return new Entitlements(subscription.getId(), Boolean.TRUE.equals(subscription.getIsPaid()),
+                Boolean.TRUE.equals(subscription.getHasReportDownloadAddon()), plan.getTier(), plan.getName(),
+                plan.getMaxEmployees(), plan.getMaxLeavePolicies(), plan.getMaxHolidays(), features,
+                subscription.getCurrentPeriodEnd());
+    }
+
+    private static int flag(Boolean enabled, PlanFeature feature) {
+        return Boolean.TRUE.equals(enabled) ? feature.mask() : 0;
+    }
+
+    /**
+     * A company's plan limits and features. {@code subscriptionId} is null when the company has no
+     * active subscription, in which case every feature is off.
+     */
+    public record Entitlements(Long subscriptionId, boolean paid, boolean reportDownloadAddon, PlanTier tier,
+                               String planName, int maxEmployees, int maxLeavePolicies, int maxHolidays,
+                               int features, LocalDateTime currentPeriodEnd) {
+
+        static Entitlements none() {
+            return new Entitlements(null, false, false, null, null, 0, 0, 0, 0, null);
+        }
+
+        public boolean hasSubscription() {
+            return subscriptionId != null;
+        }
+
+        public boolean has(PlanFeature feature) {
+            return (features & feature.mask()) != 0;
+        }
+
+        public boolean isWithinPeriod() {
+            return currentPeriodEnd != null && LocalDateTime.now().isBefore(currentPeriodEnd);
+        }
+    }
+}
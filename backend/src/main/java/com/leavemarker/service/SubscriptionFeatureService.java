@@ -1,31 +1,25 @@
 package com.leavemarker.service;
 
 import com.leavemarker.dto.subscription.SubscriptionFeatureResponse;
-import com.leavemarker.entity.Company;
-import com.leavemarker.entity.Plan;
-import com.leavemarker.entity.Subscription;
+import com.leavemarker.enums.PlanFeature;
 import com.leavemarker.enums.PlanTier;
-import com.leavemarker.enums.SubscriptionStatus;
 import com.leavemarker.exception.BadRequestException;
-import com.leavemarker.repository.CompanyRepository;
 import com.leavemarker.repository.EmployeeRepository;
 import com.leavemarker.repository.LeavePolicyRepository;
-import com.leavemarker.repository.SubscriptionRepository;
+import com.leavemarker.service.SubscriptionEntitlementService.Entitlements;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SubscriptionFeatureService {
 
-    private final SubscriptionRepository subscriptionRepository;
-    private final CompanyRepository companyRepository;
+    private final SubscriptionEntitlementService subscriptionEntitlementService;
     private final EmployeeRepository employeeRepository;
     private final LeavePolicyRepository leavePolicyRepository;
 
@@ -33,15 +27,10 @@ public class SubscriptionFeatureService {
      * Get the current active subscription for a company.
      * Returns a default FREE plan config if no subscription exists.
      */
-    @Transactional(readOnly = true)
     public SubscriptionInfo getSubscriptionInfo(Long companyId) {
-        Company company = companyRepository.findById(companyId)
-                .orElseThrow(() -> new BadRequestException("Company not found"));
-
-        Optional<Subscription> subscriptionOpt = subscriptionRepository
-                .findByCompanyAndStatus(company, SubscriptionStatus.ACTIVE);
+        Entitlements entitlements = subscriptionEntitlementService.get(companyId);
 
-        if (subscriptionOpt.isEmpty()) {
+        if (!entitlements.hasSubscription()) {
             // Return default FREE tier limits
             return SubscriptionInfo.builder()
                     .activeSubscription(false)
@@ -57,28 +46,22 @@ public class SubscriptionFeatureService {
                     .build();
         }
 
-        Subscription subscription = subscriptionOpt.get();
-        Plan plan = subscription.getPlan();
-
-        // Check if subscription is within valid period
-        boolean isValidPeriod = LocalDateTime.now().isBefore(subscription.getCurrentPeriodEnd());
-
         return SubscriptionInfo.builder()
                 .activeSubscription(true)
-                .subscriptionId(subscription.getId())
-                .paid(subscription.getIsPaid())
-                .valid(isValidPeriod)
-                .tier(plan.getTier())
-                .planName(plan.getName())
-                .maxEmployees(plan.getMaxEmployees())
-                .maxLeavePolicies(plan.getMaxLeavePolicies())
-                .maxHolidays(plan.getMaxHolidays())
-                .attendanceManagement(plan.getAttendanceManagement())
-                .reportsDownload(plan.getReportsDownload())
-                .multipleLeavePolicies(plan.getMultipleLeavePolicies())
-                .unlimitedHolidays(plan.getUnlimitedHolidays())
-                .attendanceRateAnalytics(plan.getAttendanceRateAnalytics())
-                .currentPeriodEnd(subscription.getCurrentPeriodEnd())
+                .subscriptionId(entitlements.subscriptionId())
+                .paid(entitlements.paid())
+                .valid(entitlements.isWithinPeriod())
+                .tier(entitlements.tier())
+                .planName(entitlements.planName())
+                .maxEmployees(entitlements.maxEmployees())
+                .maxLeavePolicies(entitlements.maxLeavePolicies())
+                .maxHolidays(entitlements.maxHolidays())
+                .attendanceManagement(entitlements.has(PlanFeature.ATTENDANCE_MANAGEMENT))
+                .reportsDownload(entitlements.has(PlanFeature.REPORTS_DOWNLOAD))
+                .multipleLeavePolicies(entitlements.has(PlanFeature.MULTIPLE_LEAVE_POLICIES))
+                .unlimitedHolidays(entitlements.has(PlanFeature.UNLIMITED_HOLIDAYS))
+                .attendanceRateAnalytics(entitlements.has(PlanFeature.ATTENDANCE_RATE_ANALYTICS))
+                .currentPeriodEnd(entitlements.currentPeriodEnd())
                 .build();
     }
 
@@ -117,7 +100,6 @@ public class SubscriptionFeatureService {
     /**
      * Check if company has access to attendance management.
      */
-    @Transactional(readOnly = true)
     public void validateAttendanceAccess(Long companyId) {
         SubscriptionInfo info = getSubscriptionInfo(companyId);
 
@@ -130,7 +112,6 @@ public class SubscriptionFeatureService {
     /**
      * Check if company has access to reports download.
      */
-    @Transactional(readOnly = true)
     public void validateReportsAccess(Long companyId) {
         SubscriptionInfo info = getSubscriptionInfo(companyId);
 
@@ -143,7 +124,6 @@ public class SubscriptionFeatureService {
     /**
      * Check if company has access to attendance rate analytics.
      */
-    @Transactional(readOnly = true)
     public boolean hasAttendanceRateAnalyticsAccess(Long companyId) {
         return getSubscriptionInfo(companyId).isAttendanceRateAnalytics();
     }
@@ -33,6 +33,7 @@ public class SubscriptionService {
     private final SubscriptionRepository subscriptionRepository;
     private final PlanRepository planRepository;
     private final CompanyRepository companyRepository;
+    private final SubscriptionEntitlementService subscriptionEntitlementService;
 
     @Transactional(readOnly = true)
     public SubscriptionResponse getActiveSubscription(Long companyId) {
@@ -124,6 +125,7 @@ public class SubscriptionService {
                 .build();
 
         Subscription savedSubscription = subscriptionRepository.save(subscription);
+        subscriptionEntitlementService.evict(companyId);
         log.info("Created subscription for company: {} with plan: {} (tier: {})",
                 companyId, plan.getName(), plan.getTier());
         return convertToResponse(savedSubscription);
@@ -157,6 +159,7 @@ public class SubscriptionService {
         }
 
         Subscription updatedSubscription = subscriptionRepository.save(subscription);
+        subscriptionEntitlementService.evict(subscription.getCompany().getId());
         log.info("Updated subscription: {}", subscriptionId);
         return convertToResponse(updatedSubscription);
     }
@@ -170,20 +173,23 @@ public class SubscriptionService {
         subscription.setCancelledAt(LocalDateTime.now());
         subscription.setCancellationReason(reason);
         subscriptionRepository.save(subscription);
+        subscriptionEntitlementService.evict(subscription.getCompany().getId());
         log.info("Cancelled subscription: {}", subscriptionId);
     }
 
     @Transactional
-    public void expireSubscriptions() {
+    public int expireSubscriptions() {
         List<Subscription> expiredSubscriptions = subscriptionRepository
                 .findByEndDateBeforeAndStatus(LocalDateTime.now(), SubscriptionStatus.ACTIVE);
 
         for (Subscription subscription : expiredSubscriptions) {
             subscription.setStatus(SubscriptionStatus.EXPIRED);
             subscriptionRepository.save(subscription);
+            subscriptionEntitlementService.evict(subscription.getCompany().getId());
             log.info("Expired subscription: {} for company: {}",
                     subscription.getId(), subscription.getCompany().getId());
         }
+        return expiredSubscriptions.size();
     }
 
     @Transactional
@@ -193,6 +199,7 @@ public class SubscriptionService {
         subscription.setIsPaid(true);
         subscription.setStatus(SubscriptionStatus.ACTIVE);
         subscriptionRepository.save(subscription);
+        subscriptionEntitlementService.evict(subscription.getCompany().getId());
         log.info("Marked subscription {} as paid", subscriptionId);
     }
 
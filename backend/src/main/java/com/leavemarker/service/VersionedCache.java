@@ -0,0 +1,36 @@
+package com.leavemarker.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entries stamped with the {@link CompanyVersionService} version they were loaded under. An entry is
+ * only returned for that same version and within the TTL, and a load never replaces an entry loaded
+ * under a newer version, so a slow reader cannot put back data from before a change.
+ */
+final class VersionedCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The cached value if it was loaded under {@code version} less than {@code ttlMs} ago, otherwise null.
+     */
+    V get(K key, long version, long ttlMs) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.version != version || System.currentTimeMillis() - entry.loadedAt > ttlMs) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    void put(K key, long version, V value) {
+        Entry<V> loaded = new Entry<>(version, value, System.currentTimeMillis());
+        entries.compute(key, (k, current) -> current != null && current.version > version ? current : loaded);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(long version, V value, long loadedAt) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.leavemarker.service;
+
+import com.leavemarker.entity.Holiday;
+import com.leavemarker.enums.IndianState;
+import com.leavemarker.repository.HolidayRepository;
+import com.leavemarker.service.CompanyVersionService.Kind;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Working-day calendar per company, state and year. Each year is kept as a bitset of working days
+ * (weekends and active holidays cleared) with running popcounts per 64-day word, so counting the
+ * working days in any range costs two rank lookups instead of a walk over every date.
+ * Every holiday change bumps the company's holiday version, and a cached year is only used while it was
+ * built under the current version, whichever replica made the change.
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkingDayCalendarService {
+
+    private final HolidayRepository holidayRepository;
+    private final CompanyVersionService companyVersionService;
+
+    private final VersionedCache<CalendarKey, YearCalendar> calendars = new VersionedCache<>();
+
+    @Value("${calendar.cache-ttl:3600000}")
+    private long cacheTtlMs;
+
+    /**
+     * Number of working days from {@code startDate} to {@code endDate}, both inclusive.
+     */
+    public long countWorkingDays(Long companyId, IndianState state, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+
+        long version = companyVersionService.current(companyId, Kind.HOLIDAYS);
+        long total = 0;
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            YearCalendar calendar = getCalendar(companyId, state, year, version);
+            int from = year == startDate.getYear() ? startDate.getDayOfYear() - 1 : 0;
+            int to = year == endDate.getYear() ? endDate.getDayOfYear() : calendar.length;
+            total += calendar.rank(to) - calendar.rank(from);
+        }
+        return total;
+    }
+
+    /**
+     * Whether the date falls on the weekly off days, which every company and state shares.
+     */
+    public boolean isWeekend(LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+    }
+
+    public boolean isWorkingDay(Long companyId, IndianState state, LocalDate date) {
+        long version = companyVersionService.current(companyId, Kind.HOLIDAYS);
+        return getCalendar(companyId, state, date.getYear(), version).isSet(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * Invalidates every cached year of the company on every replica, together with the change that commits.
+     */
+    public void evictCompany(Long companyId) {
+        companyVersionService.bump(companyId, Kind.HOLIDAYS);
+    }
+
+    private YearCalendar getCalendar(Long companyId, IndianState state, int year, long version) {
+        CalendarKey key = new CalendarKey(companyId, state, year);
+        YearCalendar calendar = calendars.get(key, version, cacheTtlMs);
+        if (calendar == null) {
+            calendar = build(companyId, state, year);
+            calendars.put(key, version, calendar);
+        }
+        return calendar;
+    }
+
+    private YearCalendar build(Long companyId, IndianState state, int year) {
+        LocalDate firstDay = LocalDate.of(year, 1, 1);
+        int length = firstDay.lengthOfYear();
+        long[] words = new long[(length + 63) / 64];
+
+        for (int day = 0; day < length; day++) {
+            if (!isWeekend(firstDay.plusDays(day))) {
+                words[day >> 6] |= 1L << (day & 63);
+            }
+        }
+
+        List<Holiday> holidays = holidayRepository.findByCompanyIdAndStateAndDateRange(
+                companyId, state, firstDay, firstDay.withDayOfYear(length));
+        for (Holiday holiday : holidays) {
+            if (Boolean.TRUE.equals(holiday.getActive())) {
+                int day = holiday.getDate().getDayOfYear() - 1;
+                words[day >> 6] &= ~(1L << (day & 63));
+            }
+        }
+
+        return new YearCalendar(words, length);
+    }
+
+    private record CalendarKey(Long companyId, IndianState state, int year) {
+    }
+
+    private static final class YearCalendar {
+
+        private final long[] words;
+        // Working days before each word
+        private final int[] prefixCounts;
+        private final int length;
+
+        YearCalendar(long[] words, int length) {
+            this.words = words;
+            this.length = length;
+            this.prefixCounts = new int[words.length];
+            for (int i = 1; i < words.length; i++) {
+                prefixCounts[i] = prefixCounts[i - 1] + Long.bitCount(words[i - 1]);
+            }
+        }
+
+        /**
+         * Working days among the first {@code dayCount} days of the year.
+         */
+        int rank(int dayCount) {
+            if (dayCount <= 0) {
+                return 0;
+            }
+            int word = (dayCount - 1) >> 6;
+            int bits = ((dayCount - 1) & 63) + 1;
+            long mask = bits == 64 ? -1L : (1L << bits) - 1;
+            return prefixCounts[word] + Long.bitCount(words[word] & mask);
+        }
+
+        boolean isSet(int day) {
+            return (words[day >> 6] & (1L << (day & 63))) != 0;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.leavemarker.service;
+
+import com.leavemarker.config.BoundedExecutors;
+import com.leavemarker.dto.leavebalance.YearEndClosingResponse;
+import com.leavemarker.entity.LeaveBalanceLedgerEntry;
+import com.leavemarker.entity.LeavePolicy;
+import com.leavemarker.entity.YearEndClosingRun;
+import com.leavemarker.enums.JobStatus;
+import com.leavemarker.enums.LeaveMovementType;
+import com.leavemarker.enums.LeaveType;
+import com.leavemarker.exception.ResourceNotFoundException;
+import com.leavemarker.exception.ServiceUnavailableException;
+import com.leavemarker.repository.CompanyRepository;
+import com.leavemarker.repository.LeaveBalanceRepository;
+import com.leavemarker.repository.LeaveBalanceRepository.ClosingBalanceView;
+import com.leavemarker.repository.LeaveBalanceRepositoryCustom.CarryForward;
+import com.leavemarker.repository.LeavePolicyRepository;
+import com.leavemarker.repository.YearEndClosingRunRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Closes a company's leave year: each balance's unused days are split into carry-forward (capped by
+ * the policy) and encashable days, and next-year balances are created or topped up.
+ * Balances are processed in id order in fixed-size chunks. Each chunk commits together with the
+ * run's checkpoint, so a run interrupted by a crash or failure resumes after the last committed chunk.
+ * Runs hold the same cluster lock as the scheduled closing, and each chunk locks the run row while it
+ * reads and advances the checkpoint, so two replicas never close the same balances.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class YearEndClosingService {
+
+    public static final String JOB_NAME = "year-end-closing";
+
+    private static final int RETRY_AFTER_SECONDS = 30;
+
+    private final YearEndClosingRunRepository closingRunRepository;
+    private final LeaveBalanceRepository leaveBalanceRepository;
+    private final LeavePolicyRepository leavePolicyRepository;
+    private final CompanyRepository companyRepository;
+    private final LeaveLedgerService leaveLedgerService;
+    private final TransactionTemplate transactionTemplate;
+    private final ReportCacheService reportCacheService;
+    private final ClusterJobRunner jobRunner;
+
+    @Value("${leave.year-end.chunk-size:500}")
+    private int chunkSize;
+
+    // Runs currently executing in this instance, keyed by company and year; other replicas are kept out by the cluster lock
+    private final Set<String> activeRuns = ConcurrentHashMap.newKeySet();
+
+    // Closings are rare and heavy; a small bounded pool keeps them from crowding out request work
+    private final ThreadPoolExecutor closingExecutor = BoundedExecutors.newFixedPool("year-end-closing", 1, 8);
+
+    @PreDestroy
+    void shutdown() {
+        closingExecutor.shutdownNow();
+    }
+
+    /**
+     * Starts or resumes the closing in the background and returns its current progress.
+     * A completed closing is returned as is.
+     */
+    public YearEndClosingResponse startClosing(Long companyId, Integer year) {
+        YearEndClosingRun run = transactionTemplate.execute(status -> prepareRun(companyId, year));
+        if (run.getStatus() == JobStatus.COMPLETED) {
+            return toResponse(run);
+        }
+
+        String key = companyId + ":" + year;
+        if (!activeRuns.add(key)) {
+            return toResponse(run);
+        }
+
+        Long runId = run.getId();
+        try {
+            closingExecutor.execute(() -> {
+                try {
+                    // Skipped when another replica holds the lock; it is already running this closing
+                    jobRunner.runForCompany(JOB_NAME, companyId, () -> {
+                        execute(runId, companyId, year);
+                        return getProgress(companyId, year).getProcessedBalances();
+                    });
+                } finally {
+                    activeRuns.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            activeRuns.remove(key);
+            throw new ServiceUnavailableException("Too many year-end closings in progress, please retry shortly",
+                    RETRY_AFTER_SECONDS);
+        }
+
+        return toResponse(run);
+    }
+
+    /**
+     * Runs or resumes the closing on the calling thread. The caller holds the cluster lock for {@link #JOB_NAME}.
+     */
+    public YearEndClosingResponse closeYear(Long companyId, Integer year) {
+        String key = companyId + ":" + year;
+        if (!activeRuns.add(key)) {
+            return getProgress(companyId, year);
+        }
+
+        try {
+            YearEndClosingRun run = transactionTemplate.execute(status -> prepareRun(companyId, year));
+            if (run.getStatus() != JobStatus.COMPLETED) {
+                execute(run.getId(), companyId, year);
+            }
+        } finally {
+            activeRuns.remove(key);
+        }
+        return getProgress(companyId, year);
+    }
+
+    public YearEndClosingResponse getProgress(Long companyId, Integer year) {
+        return closingRunRepository.findByCompanyIdAndYearAndDeletedFalse(companyId, year)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("No year-end closing found for " + year));
+    }
+
+    private YearEndClosingRun prepareRun(Long companyId, Integer year) {
+        YearEndClosingRun run = closingRunRepository.findByCompanyIdAndYearAndDeletedFalse(companyId, year)
+                .orElseGet(() -> YearEndClosingRun.builder()
+                        .company(companyRepository.getReferenceById(companyId))
+                        .year(year)
+                        .status(JobStatus.RUNNING)
+                        .totalBalances((int) leaveBalanceRepository.countByEmployeeCompanyIdAndYearAndDeletedFalse(
+                                companyId, year))
+                        .startedAt(LocalDateTime.now())
+                        .build());
+
+        if (run.getStatus() == JobStatus.FAILED) {
+            run.setStatus(JobStatus.RUNNING);
+            run.setErrorMessage(null);
+        }
+        return closingRunRepository.save(run);
+    }
+
+    private void execute(Long runId, Long companyId, Integer year) {
+        try {
+            Map<LeaveType, LeavePolicy> policies = leavePolicyRepository
+                    .findByCompanyIdAndActiveAndDeletedFalse(companyId, true).stream()
+                    .collect(Collectors.toMap(LeavePolicy::getLeaveType, Function.identity()));
+
+            boolean more = true;
+            while (more) {
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> processChunk(runId, companyId, year, policies)));
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                YearEndClosingRun run = closingRunRepository.findById(runId).orElseThrow();
+                run.setStatus(JobStatus.COMPLETED);
+                run.setCompletedAt(LocalDateTime.now());
+                closingRunRepository.save(run);
+            });
+            log.info("Year-end closing {} completed for company {}", year, companyId);
+        } catch (Exception ex) {
+            log.error("Year-end closing {} failed for company {}", year, companyId, ex);
+            String message = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            transactionTemplate.executeWithoutResult(status -> {
+                YearEndClosingRun run = closingRunRepository.findById(runId).orElseThrow();
+                run.setStatus(JobStatus.FAILED);
+                run.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+                closingRunRepository.save(run);
+            });
+        }
+    }
+
+    /**
+     * Closes the next chunk and advances the checkpoint in the same transaction.
+     * Returns whether more balances may remain.
+     */
+    private boolean processChunk(Long runId, Long companyId, Integer year, Map<LeaveType, LeavePolicy> policies) {
+        YearEndClosingRun run = closingRunRepository.findByIdForUpdate(runId).orElseThrow();
+        if (run.getStatus() == JobStatus.COMPLETED) {
+            return false;
+        }
+        List<ClosingBalanceView> chunk = leaveBalanceRepository.findClosingChunk(
+                companyId, year, run.getLastBalanceId(), PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return false;
+        }
+
+        int nextYear = year + 1;
+        Set<Long> employeeIds = chunk.stream().map(ClosingBalanceView::getEmployeeId).collect(Collectors.toSet());
+        Set<BalanceKey> existingNextYear = leaveBalanceRepository.findKeysByEmployeeIdsAndYear(employeeIds, nextYear)
+                .stream()
+                .map(view -> new BalanceKey(view.getEmployeeId(), view.getLeaveType()))
+                .collect(Collectors.toSet());
+
+        Map<Long, Double> encashable = new HashMap<>();
+        List<CarryForward> carried = new ArrayList<>();
+        List<LeaveBalanceLedgerEntry> ledgerEntries = new ArrayList<>();
+        double carriedTotal = 0;
+        double encashableTotal = 0;
+
+        for (ClosingBalanceView balance : chunk) {
+            LeavePolicy policy = policies.get(balance.getLeaveType());
+            if (policy == null) {
+                // No active policy: nothing to carry or encash and no next-year entitlement
+                continue;
+            }
+
+            double remaining = Math.max(0, balance.getAvailable());
+            double carry = policy.getCarryForward() ? Math.min(remaining, policy.getMaxCarryForward()) : 0;
+            double encash = policy.getEncashmentAllowed() ? remaining - carry : 0;
+            boolean exists = existingNextYear.contains(new BalanceKey(balance.getEmployeeId(), balance.getLeaveType()));
+
+            if (encash > 0) {
+                encashable.put(balance.getId(), encash);
+            }
+            if (!exists || carry > 0) {
+                carried.add(new CarryForward(balance.getEmployeeId(), balance.getLeaveType(), nextYear,
+                        policy.getAnnualQuota(), carry));
+            }
+            if (!exists) {
+                ledgerEntries.add(leaveLedgerService.entry(balance.getEmployeeId(), balance.getLeaveType(), nextYear,
+                        LeaveMovementType.OPENING, policy.getAnnualQuota(), 0, 0, null));
+            }
+            if (carry > 0) {
+                ledgerEntries.add(leaveLedgerService.entry(balance.getEmployeeId(), balance.getLeaveType(), nextYear,
+                        LeaveMovementType.CARRY_FORWARD, carry, 0, 0, null));
+            }
+
+            carriedTotal += carry;
+            encashableTotal += encash;
+        }
+
+        leaveBalanceRepository.updateEncashableDays(encashable);
+        leaveBalanceRepository.upsertCarriedForward(carried);
+        leaveLedgerService.recordAll(ledgerEntries);
+        reportCacheService.dataChanged(companyId);
+
+        run.setLastBalanceId(chunk.get(chunk.size() - 1).getId());
+        run.setProcessedBalances(run.getProcessedBalances() + chunk.size());
+        run.setCarriedForwardDays(run.getCarriedForwardDays() + carriedTotal);
+        run.setEncashableDays(run.getEncashableDays() + encashableTotal);
+        closingRunRepository.save(run);
+
+        return chunk.size() == chunkSize;
+    }
+
+    private YearEndClosingResponse toResponse(YearEndClosingRun run) {
+        return YearEndClosingResponse.builder()
+                .runId(run.getId())
+                .year(run.getYear())
+                .status(run.getStatus())
+                .totalBalances(run.getTotalBalances())
+                .processedBalances(run.getProcessedBalances())
+                .carriedForwardDays(run.getCarriedForwardDays())
+                .encashableDays(run.getEncashableDays())
+                .errorMessage(run.getErrorMessage())
+                .startedAt(run.getStartedAt())
+                .completedAt(run.getCompletedAt())
+                .build();
+    }
+
+    private record BalanceKey(Long employeeId, LeaveType leaveType) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.dto.leaveapplication.LeaveApplicationResponse;
+import com.leavemarker.entity.Company;
+import com.leavemarker.entity.Employee;
+import com.leavemarker.entity.LeaveApplication;
+import com.leavemarker.enums.LeaveStatus;
+import com.leavemarker.enums.LeaveType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Leave application responses are built by RESPONSE_PROJECTION in one statement, including the
+ * employee, manager and HR names that used to be loaded lazily per row.
+ */
+class LeaveApplicationResponseQueryTest extends QueryCountTestSupport {
+
+    private static final int EMPLOYEES = 5;
+    private static final LocalDate START = LocalDate.of(2024, 6, 1);
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    private Company company;
+    private Employee manager;
+    private Employee firstEmployee;
+
+    @BeforeEach
+    void createApplications() {
+        company = company("Leave Co");
+        manager = employee(company, "M1", null);
+        Employee hr = employee(company, "H1", null);
+        for (int i = 1; i <= EMPLOYEES; i++) {
+            Employee employee = employee(company, "E" + i, manager);
+            if (firstEmployee == null) {
+                firstEmployee = employee;
+            }
+            // Fully approved by manager and HR
+            entityManager.persist(LeaveApplication.builder()
+                    .employee(employee)
+                    .leaveType(LeaveType.EARNED_LEAVE)
+                    .startDate(START.plusDays(i))
+                    .endDate(START.plusDays(i + 1))
+                    .numberOfDays(2.0)
+                    .status(LeaveStatus.APPROVED)
+                    .requiresHrApproval(true)
+                    .approvedByManager(manager)
+                    .managerApprovalDate(START)
+                    .approvedByHr(hr)
+                    .hrApprovalDate(START)
+                    .build());
+            // Waiting for HR after the manager's approval
+            entityManager.persist(LeaveApplication.builder()
+                    .employee(employee)
+                    .leaveType(LeaveType.EARNED_LEAVE)
+                    .startDate(START.plusDays(10 + i))
+                    .endDate(START.plusDays(10 + i))
+                    .numberOfDays(1.0)
+                    .requiresHrApproval(true)
+                    .approvedByManager(manager)
+                    .managerApprovalDate(START)
+                    .build());
+            // Waiting for the manager
+            entityManager.persist(LeaveApplication.builder()
+                    .employee(employee)
+                    .leaveType(LeaveType.CASUAL_LEAVE)
+                    .startDate(START.plusDays(20 + i))
+                    .endDate(START.plusDays(20 + i))
+                    .numberOfDays(1.0)
+                    .build());
+        }
+    }
+
+    @Test
+    void employeeHistoryUsesOneStatement() {
+        Counted<List<LeaveApplicationResponse>> responses = countStatements(() ->
+                leaveApplicationRepository.findResponsesByEmployeeId(firstEmployee.getId()));
+
+        assertThat(responses.result()).hasSize(3);
+        assertThat(responses.result())
+                .filteredOn(response -> response.getStatus() == LeaveStatus.APPROVED)
+                .singleElement()
+                .satisfies(response -> {
+                    assertThat(response.getEmployeeName()).isEqualTo("Employee E1");
+                    assertThat(response.getApprovedByManagerName()).isEqualTo("Employee M1");
+                    assertThat(response.getApprovedByHrName()).isEqualTo("Employee H1");
+                });
+        assertThat(responses.statements()).isEqualTo(1);
+    }
+
+    @Test
+    void companyPageUsesOneStatement() {
+        Counted<List<LeaveApplicationResponse>> responses = countStatements(() ->
+                leaveApplicationRepository.findResponsePageByCompanyIdAndDateRange(company.getId(), START,
+                        START.plusDays(60), PageRequest.of(0, 100)));
+
+        assertThat(responses.result()).hasSize(3 * EMPLOYEES);
+        assertThat(responses.statements()).isEqualTo(1);
+    }
+
+    @Test
+    void managerQueueUsesOneStatement() {
+        Counted<List<LeaveApplicationResponse>> responses = countStatements(() ->
+                leaveApplicationRepository.findPendingResponsesForManager(manager.getId()));
+
+        assertThat(responses.result()).hasSize(EMPLOYEES);
+        assertThat(responses.result()).allSatisfy(response -> {
+            assertThat(response.getEmployeeName()).startsWith("Employee E");
+            assertThat(response.getApprovedByManagerName()).isNull();
+        });
+        assertThat(responses.statements()).isEqualTo(1);
+    }
+
+    @Test
+    void hrQueueUsesOneStatement() {
+        Counted<List<LeaveApplicationResponse>> responses = countStatements(() ->
+                leaveApplicationRepository.findPendingResponsesForHr(company.getId()));
+
+        assertThat(responses.result()).hasSize(EMPLOYEES);
+        assertThat(responses.result()).allSatisfy(response ->
+                assertThat(response.getApprovedByManagerName()).isEqualTo("Employee M1"));
+        assertThat(responses.statements()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,97 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.entity.Company;
+import com.leavemarker.entity.Employee;
+import com.leavemarker.enums.EmploymentType;
+import com.leavemarker.enums.IndianState;
+import com.leavemarker.enums.Role;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Base for repository tests that pin down how many SQL statements a query costs, using Hibernate's
+ * statistics. The queries use PostgreSQL features, so the tests run against a throwaway PostgreSQL
+ * container whose schema is created and dropped by Hibernate. Without Docker they are skipped.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+abstract class QueryCountTestSupport {
+
+    // One container for all subclasses, which share a cached application context; stopped when the JVM exits
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    protected TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    static void startDatabase() {
+        POSTGRES.start();
+    }
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    /**
+     * Runs the query against a cleared persistence context and returns its result with the number of
+     * JDBC statements it prepared, so lazy loads done while reading the result are counted too.
+     */
+    protected <T> Counted<T> countStatements(Supplier<T> query) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        T result = query.get();
+        return new Counted<>(result, statistics.getPrepareStatementCount());
+    }
+
+    protected Company company(String name) {
+        return entityManager.persist(Company.builder()
+                .name(name)
+                .email("admin@" + domain(name))
+                .build());
+    }
+
+    protected Employee employee(Company company, String employeeId, Employee manager) {
+        return entityManager.persist(Employee.builder()
+                .company(company)
+                .employeeId(employeeId)
+                .fullName("Employee " + employeeId)
+                .email(employeeId.toLowerCase() + "@" + domain(company.getName()))
+                .password("not-a-real-hash")
+                .role(manager == null ? Role.MANAGER : Role.EMPLOYEE)
+                .dateOfJoining(LocalDate.of(2024, 1, 1))
+                .employmentType(EmploymentType.FULL_TIME)
+                .workLocation(IndianState.KARNATAKA)
+                .manager(manager)
+                .build());
+    }
+
+    private static String domain(String companyName) {
+        return companyName.toLowerCase().replace(' ', '-') + ".example.com";
+    }
+
+    protected record Counted<T>(T result, long statements) {
+    }
+}
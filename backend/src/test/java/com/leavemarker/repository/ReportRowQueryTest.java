@@ -0,0 +1,115 @@
+package com.leavemarker.repository;
+
+import com.leavemarker.dto.report.AttendanceReportRow;
+import com.leavemarker.dto.report.LeaveBalanceReportRow;
+import com.leavemarker.dto.report.LeaveUsageReportRow;
+import com.leavemarker.entity.Attendance;
+import com.leavemarker.entity.Company;
+import com.leavemarker.entity.Employee;
+import com.leavemarker.entity.LeaveApplication;
+import com.leavemarker.entity.LeaveBalance;
+import com.leavemarker.enums.AttendanceStatus;
+import com.leavemarker.enums.LeaveStatus;
+import com.leavemarker.enums.LeaveType;
+import com.leavemarker.enums.WorkType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Each report is read with a single statement however many employees it covers.
+ */
+class ReportRowQueryTest extends QueryCountTestSupport {
+
+    private static final int EMPLOYEES = 5;
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private LeaveApplicationRepository leaveApplicationRepository;
+
+    private Company company;
+
+    @BeforeEach
+    void createCompany() {
+        company = company("Report Co");
+        Employee manager = employee(company, "M1", null);
+        for (int i = 1; i <= EMPLOYEES; i++) {
+            Employee employee = employee(company, "E" + i, manager);
+            entityManager.persist(LeaveBalance.builder()
+                    .employee(employee)
+                    .leaveType(LeaveType.CASUAL_LEAVE)
+                    .year(2024)
+                    .totalQuota(12.0)
+                    .available(12.0)
+                    .build());
+            entityManager.persist(Attendance.builder()
+                    .employee(employee)
+                    .date(START.plusDays(i))
+                    .punchInTime(LocalTime.of(9, 0))
+                    .punchOutTime(LocalTime.of(18, 0))
+                    .workType(WorkType.OFFICE)
+                    .status(AttendanceStatus.PRESENT)
+                    .build());
+            entityManager.persist(LeaveApplication.builder()
+                    .employee(employee)
+                    .leaveType(LeaveType.CASUAL_LEAVE)
+                    .startDate(START.plusDays(10 + i))
+                    .endDate(START.plusDays(10 + i))
+                    .numberOfDays(1.0)
+                    .status(LeaveStatus.APPROVED)
+                    .approvedByManager(manager)
+                    .build());
+        }
+    }
+
+    @Test
+    void leaveBalanceReportUsesOneStatement() {
+        Counted<List<LeaveBalanceReportRow>> rows = countStatements(() -> readAll(
+                leaveBalanceRepository.streamReportRows(company.getId(), 2024)));
+
+        assertThat(rows.result()).hasSize(EMPLOYEES);
+        assertThat(rows.result()).allSatisfy(row -> assertThat(row.employeeName()).startsWith("Employee E"));
+        assertThat(rows.statements()).isEqualTo(1);
+    }
+
+    @Test
+    void attendanceReportUsesOneStatement() {
+        Counted<List<AttendanceReportRow>> rows = countStatements(() -> readAll(
+                attendanceRepository.streamReportRows(company.getId(), START, END)));
+
+        assertThat(rows.result()).hasSize(EMPLOYEES);
+        assertThat(rows.result()).allSatisfy(row -> assertThat(row.employeeName()).startsWith("Employee E"));
+        assertThat(rows.statements()).isEqualTo(1);
+    }
+
+    @Test
+    void leaveUsageReportUsesOneStatement() {
+        Counted<List<LeaveUsageReportRow>> rows = countStatements(() -> readAll(
+                leaveApplicationRepository.streamReportRows(company.getId(), START, END)));
+
+        assertThat(rows.result()).hasSize(EMPLOYEES);
+        assertThat(rows.result()).allSatisfy(row -> assertThat(row.employeeName()).startsWith("Employee E"));
+        assertThat(rows.statements()).isEqualTo(1);
+    }
+
+    // Reads the cursor to the end, as the report writers do, and closes it
+    private static <T> List<T> readAll(Stream<T> rows) {
+        try (rows) {
+            return rows.toList();
+        }
+    }
+}
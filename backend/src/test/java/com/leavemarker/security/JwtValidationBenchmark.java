@@ -0,0 +1,91 @@
+package com.leavemarker.security;
+
+import com.leavemarker.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token work done by {@link JwtAuthenticationFilter}: validate, then read the claims.
+ * {@code perRequestParsing} is the filter before the verified-token cache, which rebuilt the key and
+ * parser and verified the HMAC on both calls; {@code cachedClaims} is the current provider serving the
+ * same cookie again, as the SPA does on every call of a page load.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.leavemarker.security.JwtValidationBenchmark}, or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-that-is-long-enough-for-hmac-sha-256";
+
+    private JwtTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", 900_000L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxEntries", 10_000);
+        ReflectionTestUtils.setField(provider, "verifiedCacheTtl", 300_000L);
+        provider.init();
+
+        token = provider.generateToken(UserPrincipal.fromClaims(42L, "jane@example.com", "Jane Doe",
+                Role.EMPLOYEE, 7L, 0L));
+    }
+
+    @Benchmark
+    public Long perRequestParsing() {
+        if (parseWithFreshParser(token) == null) {
+            return null;
+        }
+        return Long.parseLong(parseWithFreshParser(token).getSubject());
+    }
+
+    @Benchmark
+    public UserPrincipal cachedClaims() {
+        if (!provider.validateToken(token)) {
+            return null;
+        }
+        return provider.getPrincipalFromToken(token);
+    }
+
+    private static Claims parseWithFreshParser(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtValidationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,75 @@
+package com.leavemarker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CSV escaping and number layout of the streamed report writer.
+ */
+class CsvWriterTest {
+
+    @Test
+    void leavesPlainFieldsUnquoted() throws IOException {
+        assertThat(write(false, csv -> csv.row("Employee ID", "Name", "Leave Type")))
+                .isEqualTo("Employee ID,Name,Leave Type\n");
+    }
+
+    @Test
+    void quotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        String csv = write(false, writer -> writer
+                .text("Sharma, Priya")
+                .text("said \"hi\"")
+                .text("line one\nline two")
+                .text("carriage\rreturn")
+                .endRow());
+
+        assertThat(csv).isEqualTo(
+                "\"Sharma, Priya\",\"said \"\"hi\"\"\",\"line one\nline two\",\"carriage\rreturn\"\n");
+    }
+
+    @Test
+    void writesNullAsAnEmptyField() throws IOException {
+        assertThat(write(false, csv -> csv.text("E1").text(null).text("APPROVED").endRow()))
+                .isEqualTo("E1,,APPROVED\n");
+    }
+
+    @Test
+    void writesNumbersAndOneDecimalPlace() throws IOException {
+        assertThat(write(false, csv -> csv.number(42).decimal(7.5).decimal(12).decimal(-3.5).decimal(0.04).endRow()))
+                .isEqualTo("42,7.5,12.0,-3.5,0.0\n");
+    }
+
+    @Test
+    void compressedOutputHoldsTheSameRows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter csv = new CsvWriter(out, true)) {
+            csv.row("Name", "Days");
+            csv.text("Sharma, Priya").decimal(2).endRow();
+        }
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo("Name,Days\n\"Sharma, Priya\",2.0\n");
+        }
+    }
+
+    private static String write(boolean compress, Rows rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter csv = new CsvWriter(out, compress)) {
+            rows.write(csv);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Rows {
+        void write(CsvWriter csv) throws IOException;
+    }
+}
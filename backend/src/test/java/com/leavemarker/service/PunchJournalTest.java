@@ -0,0 +1,158 @@
+package com.leavemarker.service;
+
+import com.leavemarker.enums.WorkType;
+import com.leavemarker.repository.AttendanceRepositoryCustom.Punch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recovery of acknowledged punches from the journal file: what is replayed after a restart, and what
+ * must never be.
+ */
+class PunchJournalTest {
+
+    // Mirrors the on-disk layout in PunchJournal
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 40;
+
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 3);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysUnflushedPunchesInOrderAfterReopen() throws IOException {
+        Path file = directory.resolve("punches.journal");
+        try (PunchJournal journal = PunchJournal.open(file, 8, false)) {
+            assertThat(journal.append(punch(1, true))).isTrue();
+            assertThat(journal.append(punch(2, true))).isTrue();
+            assertThat(journal.append(punch(1, false))).isTrue();
+        }
+
+        try (PunchJournal journal = PunchJournal.open(file, 8, false)) {
+            assertThat(journal.pending()).extracting(PunchJournal.Entry::sequence).containsExactly(1L, 2L, 3L);
+            assertThat(journal.pending()).extracting(PunchJournal.Entry::punch)
+                    .containsExactly(punch(1, true), punch(2, true), punch(1, false));
+        }
+    }
+
+    @Test
+    void doesNotReplayFlushedPunches() throws IOException {
+        Path file = directory.resolve("punches.journal");
+        try (PunchJournal journal = PunchJournal.open(file, 8, false)) {
+            journal.append(punch(1, true));
+            journal.append(punch(2, true));
+            journal.append(punch(3, true));
+            journal.markFlushed(2);
+            assertThat(journal.size()).isEqualTo(1);
+        }
+
+        try (PunchJournal journal = PunchJournal.open(file, 8, false)) {
+            assertThat(journal.pending()).extracting(PunchJournal.Entry::sequence).containsExactly(3L);
+
+            // Sequences carry on from the last record, not from the flushed mark
+            journal.append(punch(4, true));
+            assertThat(journal.pending()).extracting(PunchJournal.Entry::sequence).containsExactly(3L, 4L);
+        }
+    }
+
+    @Test
+    void doesNotReplayRecordsFromThePreviousGeneration() throws IOException {
+        Path file = directory.resolve("punches.journal");
+        try (PunchJournal journal = PunchJournal.open(file, 4, false)) {
+            journal.append(punch(1, true));
+            journal.append(punch(2, true));
+            journal.append(punch(3, true));
+            // Everything flushed and past half full: writing restarts at the top under a new generation
+            journal.markFlushed(3);
+            journal.append(punch(4, true));
+        }
+
+        try (PunchJournal journal = PunchJournal.open(file, 4, false)) {
+            assertThat(journal.pending()).extracting(PunchJournal.Entry::sequence).containsExactly(4L);
+            assertThat(journal.pending().get(0).punch()).isEqualTo(punch(4, true));
+
+            journal.append(punch(5, true));
+            assertThat(journal.pending()).extracting(PunchJournal.Entry::sequence).containsExactly(4L, 5L);
+        }
+    }
+
+    @Test
+    void stopsAtATornRecord() throws IOException {
+        Path file = directory.resolve("punches.journal");
+        try (PunchJournal journal = PunchJournal.open(file, 8, false)) {
+            journal.append(punch(1, true));
+            journal.append(punch(2, true));
+            journal.append(punch(3, true));
+        }
+        // A crash part-way through the third record: only its first half reached the file
+        overwrite(file, HEADER_SIZE + 2 * RECORD_SIZE + RECORD_SIZE / 2, new byte[RECORD_SIZE / 2]);
+
+        try (PunchJournal journal = PunchJournal.open(file, 8, false)) {
+            assertThat(journal.pending()).extracting(PunchJournal.Entry::sequence).containsExactly(1L, 2L);
+
+            // The torn slot is reused by the next append, which takes over its sequence
+            journal.append(punch(4, true));
+        }
+
+        try (PunchJournal journal = PunchJournal.open(file, 8, false)) {
+            assertThat(journal.pending()).extracting(PunchJournal.Entry::sequence).containsExactly(1L, 2L, 3L);
+            assertThat(journal.pending().get(2).punch()).isEqualTo(punch(4, true));
+        }
+    }
+
+    @Test
+    void stopsAtARecordWhoseChecksumDoesNotMatch() throws IOException {
+        Path file = directory.resolve("punches.journal");
+        try (PunchJournal journal = PunchJournal.open(file, 8, false)) {
+            journal.append(punch(1, true));
+            journal.append(punch(2, true));
+            journal.append(punch(3, true));
+        }
+        // Flip a byte of the second record's employee id
+        overwrite(file, HEADER_SIZE + RECORD_SIZE + 12, new byte[]{(byte) 0x7f});
+
+        try (PunchJournal journal = PunchJournal.open(file, 8, false)) {
+            assertThat(journal.pending()).extracting(PunchJournal.Entry::sequence).containsExactly(1L);
+        }
+    }
+
+    @Test
+    void refusesAppendsWhenFullUntilFlushed() throws IOException {
+        Path file = directory.resolve("punches.journal");
+        try (PunchJournal journal = PunchJournal.open(file, 2, false)) {
+            assertThat(journal.append(punch(1, true))).isTrue();
+            assertThat(journal.append(punch(2, true))).isTrue();
+            assertThat(journal.append(punch(3, true))).isFalse();
+            assertThat(journal.size()).isEqualTo(2);
+
+            List<PunchJournal.Entry> batch = journal.peek(10);
+            journal.markFlushed(batch.get(batch.size() - 1).sequence());
+
+            assertThat(journal.append(punch(3, true))).isTrue();
+            assertThat(journal.pending()).extracting(PunchJournal.Entry::sequence).containsExactly(3L);
+        }
+    }
+
+    private static Punch punch(long employeeId, boolean punchIn) {
+        return new Punch(employeeId, DATE, punchIn ? LocalTime.of(9, 0, 15) : LocalTime.of(18, 30),
+                punchIn, punchIn ? WorkType.OFFICE : null);
+    }
+
+    private static void overwrite(Path file, long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+}
@@ -1,4 +1,4 @@
-import axios from 'axios';
+import axios, { InternalAxiosRequestConfig } from 'axios';
 
 const API_BASE_URL = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/api';
 
@@ -45,16 +45,49 @@ if (!USE_COOKIES) {
   );
 }
 
+// Auth endpoints whose 401 means the credentials themselves were rejected, so refreshing can't help
+const NO_REFRESH_PATHS = ['/auth/login', '/auth/signup', '/auth/refresh', '/auth/logout'];
+
+type RetriableRequest = InternalAxiosRequestConfig & { _retried?: boolean };
+
+// Single-flight: requests that fail together while the access token is expired share one refresh
+let refreshInFlight: Promise<void> | null = null;
+
+const refreshSession = (): Promise<void> => {
+  if (!refreshInFlight) {
+    // The refresh_token cookie is scoped to /auth, so it is only sent here
+    refreshInFlight = api
+      .post('/auth/refresh')
+      .then(() => undefined)
+      .finally(() => {
+        refreshInFlight = null;
+      });
+  }
+  return refreshInFlight;
+};
+
 // Response interceptor to handle errors
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
     if (error.response?.status === 401) {
       // Don't redirect if we're in the process of logging out
       if (getIsLoggingOut()) {
         return Promise.reject(error);
       }
 
+      // Access tokens are short-lived: get a new one from the refresh cookie and replay the request once
+      const request = error.config as RetriableRequest | undefined;
+      if (USE_COOKIES && request && !request._retried && !NO_REFRESH_PATHS.includes(request.url ?? '')) {
+        request._retried = true;
+        try {
+          await refreshSession();
+          return api(request);
+        } catch {
+          // Refresh token missing, expired or revoked: fall through to the login redirect
+        }
+      }
+
       // Clear storage and redirect to login on unauthorized
       if (!USE_COOKIES) {
         localStorage.removeItem('auth_token');